@@ -0,0 +1,50 @@
+package tally.example.demo.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * In-process caches for read-mostly DTOs. Entries are evicted by the service
+ * methods that change them; the TTL only bounds how long a missed eviction
+ * could linger.
+ *
+ * Caching advice is ordered outside the transaction advice, so evictions
+ * happen after the write has committed rather than before it.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+    public static final String USERS = "users";
+    public static final String FRIENDS = "friends";
+    public static final String BILL_DETAILS = "billDetails";
+    // Keyed by bill version, so writes don't need to evict; superseded versions age out
+    public static final String BILL_SPLITS = "billSplits";
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Fixed set: unknown cache names fail fast instead of creating unbounded caches
+        cacheManager.registerCustomCache(USERS, caffeine(10_000, Duration.ofMinutes(30)).build());
+        cacheManager.registerCustomCache(FRIENDS, caffeine(10_000, Duration.ofMinutes(30)).build());
+        cacheManager.registerCustomCache(BILL_DETAILS, caffeine(5_000, Duration.ofMinutes(10)).build());
+        cacheManager.registerCustomCache(BILL_SPLITS, caffeine(10_000, Duration.ofMinutes(10)).build());
+        cacheManager.setCacheNames(List.of());
+        return cacheManager;
+    }
+
+    private static Caffeine<Object, Object> caffeine(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats();
+    }
+}
@@ -0,0 +1,38 @@
+package tally.example.demo.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+
+@Configuration
+public class JpaConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(QueryCountInspector queryCountInspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCountInspector);
+    }
+
+    // Declaring it makes Boot's own open-in-view registration back off; WebConfig registers it instead,
+    // leaving out the notification streams, which would otherwise pin a pooled connection each while open
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    // Defaults only; anything set under spring.jpa.properties.* wins
+    @Bean
+    public HibernatePropertiesCustomizer batchingPropertiesCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", "50");
+            properties.putIfAbsent("hibernate.order_inserts", "true");
+            properties.putIfAbsent("hibernate.order_updates", "true");
+            properties.putIfAbsent("hibernate.jdbc.batch_versioned_data", "true");
+            // Lazy collections outside an entity graph load in IN-batches instead of one by one
+            properties.putIfAbsent("hibernate.default_batch_fetch_size", "50");
+            // Feeds the hibernate.* meters; without it they all read zero
+            properties.putIfAbsent("hibernate.generate_statistics", "true");
+        };
+    }
+}
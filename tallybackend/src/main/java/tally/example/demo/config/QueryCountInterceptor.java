@@ -0,0 +1,60 @@
+package tally.example.demo.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Records SQL statements per request as tally.http.db.statements, tagged like
+ * http.server.requests. Async requests (streamed exports, SSE) are recorded
+ * when the handler hands off, with the statements run on the request thread
+ * up to then; the async dispatch that finishes them isn't counted again.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+    private final QueryCountInspector inspector;
+    private final MeterRegistry registry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            inspector.start();
+        }
+        return true;
+    }
+
+    // Called instead of afterCompletion when the handler goes async; also clears the thread before it is reused
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        record(request, inspector.stop());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        record(request, inspector.stop());
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        if (statements < 0) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("tally.http.db.statements")
+            .description("SQL statements executed while handling a request")
+            .tag("method", request.getMethod())
+            .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(statements);
+    }
+}
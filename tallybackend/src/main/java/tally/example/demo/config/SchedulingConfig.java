@@ -0,0 +1,18 @@
+package tally.example.demo.config;
+
+import java.time.Clock;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Services that file things under the current month read it from here, so tests can pin it
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
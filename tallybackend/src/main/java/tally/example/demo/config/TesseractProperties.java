@@ -1,14 +1,32 @@
 package tally.example.demo.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.context.annotation.Configuration;
 
 import lombok.Data;
 
 @Data
-@Configuration
 @ConfigurationProperties(prefix = "tesseract")
 public class TesseractProperties {
     private String dataPath;
     private String language;
-} 
\ No newline at end of file
+
+    // Each recognition worker owns one native Tesseract instance
+    private int workers = 2;
+
+    // Image decode/grayscale/deskew runs on its own pool ahead of recognition
+    private int preprocessWorkers = 2;
+
+    // Receipts allowed to wait per stage before scans are rejected with 429
+    private int queueCapacity = 16;
+
+    private Cache cache = new Cache();
+
+    @Data
+    public static class Cache {
+        // Scan results kept per distinct image, keyed by content hash
+        private long maxSize = 1000;
+        private Duration ttl = Duration.ofHours(1);
+    }
+}
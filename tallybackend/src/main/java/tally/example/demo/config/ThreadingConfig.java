@@ -0,0 +1,28 @@
+package tally.example.demo.config;
+
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class ThreadingConfig {
+    private final Environment environment;
+
+    // Boot silently ignores spring.threads.virtual.enabled below Java 21
+    @EventListener(ApplicationStartedEvent.class)
+    public void reportThreadingMode() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        int javaVersion = Runtime.version().feature();
+        if (requested && javaVersion < 21) {
+            log.warn("Virtual threads requested but running on Java {}; using platform threads", javaVersion);
+        } else if (requested) {
+            log.info("Request handling, @Async and @Scheduled work run on virtual threads");
+        }
+    }
+}
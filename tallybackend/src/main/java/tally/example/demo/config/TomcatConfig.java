@@ -0,0 +1,20 @@
+package tally.example.demo.config;
+
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TomcatConfig {
+
+    // Every open notification stream keeps its connection's buffers; at Tomcat's 8 KB defaults that
+    // is about 18 KB more per idle stream than this, while ordinary requests only see a few more reads
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> socketBufferCustomizer() {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            connector.setProperty("socket.appReadBufSize", "2048");
+            connector.setProperty("socket.appWriteBufSize", "2048");
+        });
+    }
+}
@@ -1,11 +1,27 @@
 package tally.example.demo.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import lombok.RequiredArgsConstructor;
+import tally.example.demo.controller.BillController;
+import tally.example.demo.controller.NotificationController;
+
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
+    private final QueryCountInterceptor queryCountInterceptor;
+    private final OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryCountInterceptor).addPathPatterns("/api/**");
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor)
+            .excludePathPatterns(NotificationController.STREAM_PATH);
+    }
 
     @Override
     public void addCorsMappings(CorsRegistry registry) {
@@ -13,6 +29,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:5176")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(BillController.NEXT_CURSOR_HEADER)
                 .allowCredentials(true);
     }
 } 
\ No newline at end of file
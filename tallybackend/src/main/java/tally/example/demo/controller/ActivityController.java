@@ -0,0 +1,47 @@
+package tally.example.demo.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.dto.ActivityPageDTO;
+import tally.example.demo.service.ActivityService;
+
+@Slf4j
+@RestController
+@Timed(value = "tally.activity.controller", histogram = true)
+@RequestMapping("/api/activity")
+@RequiredArgsConstructor
+public class ActivityController {
+    private final ActivityService activityService;
+
+    // Newest first; pass the X-Next-Cursor header of one page as the cursor for the next
+    @GetMapping
+    public ResponseEntity<?> getActivity(
+            @RequestParam Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ActivityService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            ActivityPageDTO page = activityService.getFeed(userId, cursor, size);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(BillController.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getEvents());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching activity: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
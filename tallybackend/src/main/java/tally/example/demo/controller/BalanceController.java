@@ -0,0 +1,59 @@
+package tally.example.demo.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.dto.BalanceSummaryDTO;
+import tally.example.demo.dto.LedgerDriftDTO;
+import tally.example.demo.dto.SettlementPlanDTO;
+import tally.example.demo.service.BalanceLedgerService;
+import tally.example.demo.service.SettlementService;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/balances")
+@RequiredArgsConstructor
+public class BalanceController {
+    private final BalanceLedgerService balanceLedgerService;
+    private final SettlementService settlementService;
+
+    @GetMapping
+    public ResponseEntity<BalanceSummaryDTO> getBalances(@RequestParam Long userId) {
+        return ResponseEntity.ok(balanceLedgerService.getBalances(userId));
+    }
+
+    @GetMapping("/totals")
+    public ResponseEntity<BalanceSummaryDTO> getTotals(@RequestParam Long userId) {
+        return ResponseEntity.ok(balanceLedgerService.getTotals(userId));
+    }
+
+    @GetMapping("/settlements")
+    public ResponseEntity<SettlementPlanDTO> getSettlements(@RequestParam Long userId) {
+        return ResponseEntity.ok(settlementService.planForFriendGroup(userId));
+    }
+
+    @GetMapping("/drift")
+    public ResponseEntity<LedgerDriftDTO> checkDrift() {
+        return ResponseEntity.ok(balanceLedgerService.checkDrift());
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        try {
+            return ResponseEntity.ok(balanceLedgerService.rebuild());
+        } catch (Exception e) {
+            log.error("Error rebuilding balance ledger: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package tally.example.demo.controller;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,47 +20,72 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import tally.example.demo.dto.BillDTO;
+import tally.example.demo.dto.BillImportResultDTO;
+import tally.example.demo.dto.BillPageDTO;
+import tally.example.demo.dto.BillSummaryDTO;
 import tally.example.demo.dto.request.CreateBillRequest;
 import tally.example.demo.dto.response.BillSummaryResponse;
+import tally.example.demo.dto.response.ReceiptScanJobResponse;
 import tally.example.demo.model.Bill;
 import tally.example.demo.repository.BillRepository;
+import tally.example.demo.service.BillExportService;
+import tally.example.demo.service.BillImportService;
 import tally.example.demo.service.BillService;
+import tally.example.demo.service.ConflictRetrier;
+import tally.example.demo.service.IdempotencyService;
+import tally.example.demo.service.ReceiptScanJobService;
+import tally.example.demo.service.SplitCalculator;
 
 @RestController
+@Timed(value = "tally.bill.controller", histogram = true)
 @RequestMapping("/api/bills")
 @CrossOrigin(origins = "http://localhost:5173")
 @RequiredArgsConstructor
 @Slf4j
 public class BillController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
     private final BillService billService;
+    private final BillImportService billImportService;
+    private final BillExportService billExportService;
+    private final IdempotencyService idempotencyService;
+    private final ConflictRetrier conflictRetrier;
     private final BillRepository billRepository;
+    private final ReceiptScanJobService receiptScanJobService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public ResponseEntity<?> createBill(
             @RequestBody CreateBillRequest request,
-            @RequestParam Long userId) {
+            @RequestParam Long userId,
+            @RequestHeader(name = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("bills.create", userId, idempotencyKey, request,
+            () -> doCreateBill(request, userId));
+    }
+
+    private ResponseEntity<?> doCreateBill(CreateBillRequest request, Long userId) {
         try {
-            log.info("Received create bill request from user: {}", userId);
-            log.info("Request body: {}", request);
-            
-            // Log the state of the database before creation
-            log.info("Current bill count before creation: {}", billRepository.count());
-            
+            log.debug("Received create bill request from user: {}", userId);
+            log.trace("Request body: {}", request);
+
             BillDTO bill = billService.createBill(request, userId);
-            
-            // Log the state after creation
+
             log.info("Bill created successfully with ID: {}", bill.getId());
-            log.info("Current bill count after creation: {}", billRepository.count());
-            
+
             return ResponseEntity.ok(bill);
         } catch (Exception e) {
             log.error("Error creating bill: ", e);
@@ -65,13 +95,24 @@ public class BillController {
     }
 
     @GetMapping
-    public ResponseEntity<?> getUserBills(@RequestParam Long userId) {
+    public ResponseEntity<?> getUserBills(
+            @RequestParam Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + BillService.DEFAULT_PAGE_SIZE) int size) {
         try {
-            log.info("Fetching bills for user: {}", userId);
-            List<BillDTO> bills = billService.getUserBills(userId);
-            log.info("Found {} bills", bills.size());
-            log.info("Bills: {}", bills);
-            return ResponseEntity.ok(bills);
+            log.debug("Fetching bills for user: {}", userId);
+            BillPageDTO page = billService.getUserBills(userId, cursor, size);
+            log.debug("Found {} bills", page.getBills().size());
+            log.trace("Bills: {}", page.getBills());
+
+            // The body stays a plain array; the next page is advertised in a header
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getBills());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching bills: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -79,24 +120,58 @@ public class BillController {
         }
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importBillsJson(
+            InputStream body,
+            @RequestParam Long userId,
+            @RequestParam(defaultValue = "" + BillImportService.DEFAULT_CHUNK_SIZE) int chunkSize) {
+        return importBills(() -> billImportService.importJson(body, userId, chunkSize));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importBillsCsv(
+            InputStream body,
+            @RequestParam Long userId,
+            @RequestParam(defaultValue = "" + BillImportService.DEFAULT_CHUNK_SIZE) int chunkSize) {
+        return importBills(() -> billImportService.importCsv(body, userId, chunkSize));
+    }
+
+    private ResponseEntity<?> importBills(Callable<BillImportResultDTO> importer) {
+        try {
+            return ResponseEntity.ok(importer.call());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error importing bills: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    // One listing page per call; pass nextCursor back as cursor for the next
     @GetMapping("/test-connection")
-    public ResponseEntity<?> testConnection(@RequestParam Long userId) {
+    public ResponseEntity<?> testConnection(
+            @RequestParam Long userId,
+            @RequestParam(required = false) String cursor) {
         try {
             log.info("Testing connection for user: {}", userId);
             
             long billCount = billRepository.count();
             log.info("Total bills in database: {}", billCount);
             
-            List<Bill> bills = billRepository.findByCreatorIdOrParticipantUserId(userId);
-            log.info("Found {} bills for user {}", bills.size(), userId);
+            BillPageDTO page = billService.getUserBills(userId, cursor, BillService.DEFAULT_PAGE_SIZE);
+            log.info("Found {} bills on this page for user {}", page.getBills().size(), userId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("totalBills", billCount);
-            response.put("userBills", bills.size());
+            response.put("userBillsOnPage", page.getBills().size());
+            response.put("nextCursor", page.getNextCursor());
             response.put("databaseConnected", true);
-            response.put("testBills", bills);
+            response.put("testBills", page.getBills());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Connection test failed: ", e);
             return ResponseEntity
@@ -108,11 +183,48 @@ public class BillController {
         }
     }
 
+    @PostMapping("/scan")
+    public ResponseEntity<?> scanReceipt(@RequestParam("file") MultipartFile file) {
+        try {
+            ReceiptScanJobResponse job = receiptScanJobService.submit(file.getBytes());
+            return ResponseEntity.status(scanStatus(job, HttpStatus.ACCEPTED)).body(job);
+        } catch (RejectedExecutionException e) {
+            log.warn("Receipt scan rejected, OCR pipeline is saturated");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(Map.of("error", "Receipt scanner is busy, please retry shortly"));
+        } catch (Exception e) {
+            log.error("Error scanning receipt: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @GetMapping("/scan/{jobId}")
+    public ResponseEntity<ReceiptScanJobResponse> getScanJob(@PathVariable String jobId) {
+        return receiptScanJobService.getJob(jobId)
+            .map(job -> ResponseEntity.status(scanStatus(job, HttpStatus.OK)).body(job))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // A job the recognition workers turned away is retryable, so it answers 429 like a rejected upload
+    private static HttpStatus scanStatus(ReceiptScanJobResponse job, HttpStatus pending) {
+        return switch (job.getStatus()) {
+            case PENDING -> pending;
+            case BUSY -> HttpStatus.TOO_MANY_REQUESTS;
+            default -> HttpStatus.OK;
+        };
+    }
+
+    @GetMapping("/scan/stats")
+    public ResponseEntity<Map<String, Object>> getScanCacheStats() {
+        return ResponseEntity.ok(receiptScanJobService.getStats());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<BillDTO> getBill(
             @PathVariable Long id,
             @RequestParam Long userId) {
-        log.info("Getting bill {} for user {}", id, userId);
+        log.debug("Getting bill {} for user {}", id, userId);
         BillDTO bill = billService.getBill(id);
         return ResponseEntity.ok(bill);
     }
@@ -123,19 +235,29 @@ public class BillController {
         return ResponseEntity.ok(summary);
     }
 
+    @GetMapping("/{id}/split")
+    public ResponseEntity<BillSummaryDTO> getBillSplit(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "EQUAL") SplitCalculator.Mode taxSplit) {
+        return ResponseEntity.ok(billService.calculateBillSplit(id, taxSplit));
+    }
+
     @PostMapping("/{id}/pay")
     public ResponseEntity<Void> markAsPaid(
             @PathVariable Long id,
-            @RequestParam Long userId) {
-        billService.markParticipantAsPaid(id, userId);
-        return ResponseEntity.ok().build();
+            @RequestParam Long userId,
+            @RequestHeader(name = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("bills.pay", userId, idempotencyKey, id, () -> {
+            conflictRetrier.run("Marking bill " + id + " paid", () -> billService.markParticipantAsPaid(id, userId));
+            return ResponseEntity.ok().<Void>build();
+        });
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBill(
             @PathVariable Long id,
             @RequestParam Long userId) {
-        billService.deleteBill(id, userId);
+        conflictRetrier.run("Deleting bill " + id, () -> billService.deleteBill(id, userId));
         return ResponseEntity.ok().build();
     }
 
@@ -144,14 +266,18 @@ public class BillController {
         return ResponseEntity.ok("OK");
     }
 
+    // One listing page per call; pass nextCursor back as cursor for the next
     @GetMapping("/debug")
-    public ResponseEntity<Map<String, Object>> debugBills(@RequestParam Long userId) {
+    public ResponseEntity<Map<String, Object>> debugBills(
+            @RequestParam Long userId,
+            @RequestParam(required = false) String cursor) {
         log.info("Debug bills for user: {}", userId);
         Map<String, Object> debug = new HashMap<>();
         try {
-            List<Bill> bills = billRepository.findByCreatorIdOrParticipantUserId(userId);
-            debug.put("totalBills", bills.size());
-            debug.put("bills", bills);
+            BillPageDTO page = billService.getUserBills(userId, cursor, BillService.DEFAULT_PAGE_SIZE);
+            debug.put("billsOnPage", page.getBills().size());
+            debug.put("bills", page.getBills());
+            debug.put("nextCursor", page.getNextCursor());
             
             debug.put("requestedUid", userId);
             return ResponseEntity.ok(debug);
@@ -191,23 +317,34 @@ public class BillController {
         @RequestParam Long oldUserId,
         @RequestParam Long newUserId) {
         try {
-            billRepository.updateCreatorUid(oldUserId, newUserId);
+            billService.updateCreatorId(oldUserId, newUserId);
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(e.getMessage());
         }
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBills(
+            @RequestParam Long userId,
+            @RequestParam(defaultValue = "NDJSON") BillExportService.Format format) {
+        return export(userId, format, "bills-" + userId);
+    }
+
+    // Full-table dump, streamed rather than loaded with findAll
     @GetMapping("/debug/all")
-    public ResponseEntity<?> getAllBills() {
-        try {
-            List<Bill> allBills = billRepository.findAll();
-            log.info("Total bills in database: {}", allBills.size());
-            return ResponseEntity.ok(allBills);
-        } catch (Exception e) {
-            log.error("Error fetching all bills: ", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<StreamingResponseBody> getAllBills(
+            @RequestParam(defaultValue = "NDJSON") BillExportService.Format format) {
+        return export(null, format, "bills-all");
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(Long userId, BillExportService.Format format, String fileName) {
+        boolean csv = format == BillExportService.Format.CSV;
+        StreamingResponseBody body = out -> billExportService.export(userId, format, out);
+        return ResponseEntity.ok()
+            .contentType(csv ? CSV : NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName + (csv ? ".csv" : ".ndjson")).build().toString())
+            .body(body);
     }
 } 
\ No newline at end of file
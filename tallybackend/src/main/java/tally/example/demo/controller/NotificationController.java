@@ -0,0 +1,31 @@
+package tally.example.demo.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import lombok.RequiredArgsConstructor;
+import tally.example.demo.exception.NotFoundException;
+import tally.example.demo.service.NotificationService;
+import tally.example.demo.service.UserService;
+
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+    public static final String STREAM_PATH = "/api/notifications/stream";
+
+    private final NotificationService notificationService;
+    private final UserService userService;
+
+    // Pushes "bill" events for bills the user is on; see BillEventDTO for the payload
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam Long userId) {
+        userService.findUser(userId)
+            .orElseThrow(() -> new NotFoundException("User not found"));
+        return notificationService.subscribe(userId);
+    }
+}
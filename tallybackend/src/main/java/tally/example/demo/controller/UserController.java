@@ -1,8 +1,11 @@
 package tally.example.demo.controller;
 
+import java.time.YearMonth;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -11,20 +14,30 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.dto.FriendSuggestionDTO;
 import tally.example.demo.dto.UserDTO;
+import tally.example.demo.dto.UserStatsDTO;
+import tally.example.demo.exception.BadRequestException;
+import tally.example.demo.exception.NotFoundException;
 import tally.example.demo.mapper.ModelMapper;
 import tally.example.demo.model.User;
+import tally.example.demo.service.FriendGraphService;
+import tally.example.demo.service.UserSearchService;
 import tally.example.demo.service.UserService;
+import tally.example.demo.service.UserStatsService;
 
 @Slf4j
 @RestController
+@Timed(value = "tally.user.controller", histogram = true)
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
     private final ModelMapper modelMapper;
+    private final UserStatsService userStatsService;
 
     @PostMapping
     public ResponseEntity<UserDTO> createUser(@RequestBody UserDTO userDTO) {
@@ -34,8 +47,9 @@ public class UserController {
 
     @GetMapping("/me")
     public ResponseEntity<UserDTO> getCurrentUser(@RequestParam Long userId) {
-        User user = userService.getCurrentUser(userId);
-        return ResponseEntity.ok(modelMapper.toUserDTO(user));
+        UserDTO user = userService.findUser(userId)
+            .orElseThrow(() -> new NotFoundException("User not found"));
+        return ResponseEntity.ok(user);
     }
 
     @PutMapping("/me")
@@ -46,6 +60,27 @@ public class UserController {
         return ResponseEntity.ok(modelMapper.toUserDTO(user));
     }
 
+    // Months as yyyy-MM, both inclusive; defaults to the last twelve months
+    @GetMapping("/me/stats")
+    public ResponseEntity<UserStatsDTO> getStats(
+            @RequestParam Long userId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        try {
+            return ResponseEntity.ok(userStatsService.getStats(userId, from, to));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<UserDTO>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        int bounded = Math.max(1, Math.min(limit, UserSearchService.MAX_RESULTS));
+        return ResponseEntity.ok(userService.searchUsers(q, bounded));
+    }
+
     @PostMapping("/me/friends")
     public ResponseEntity<String> addFriend(
             @RequestParam Long userId,
@@ -54,9 +89,24 @@ public class UserController {
         return ResponseEntity.ok("Friend added successfully");
     }
 
+    @DeleteMapping("/me/friends")
+    public ResponseEntity<String> removeFriend(
+            @RequestParam Long userId,
+            @RequestParam Long friendId) {
+        userService.removeFriend(userId, friendId);
+        return ResponseEntity.ok("Friend removed successfully");
+    }
+
     @GetMapping("/friends")
     public ResponseEntity<List<UserDTO>> getFriends(@RequestParam Long userId) {
-        List<User> friends = userService.getFriends(userId);
-        return ResponseEntity.ok(modelMapper.toUserDTOs(friends));
+        return ResponseEntity.ok(userService.getFriends(userId));
+    }
+
+    @GetMapping("/friends/suggestions")
+    public ResponseEntity<List<FriendSuggestionDTO>> suggestFriends(
+            @RequestParam Long userId,
+            @RequestParam(defaultValue = "20") int limit) {
+        int bounded = Math.max(1, Math.min(limit, FriendGraphService.MAX_SUGGESTIONS));
+        return ResponseEntity.ok(userService.suggestFriends(userId, bounded));
     }
 } 
\ No newline at end of file
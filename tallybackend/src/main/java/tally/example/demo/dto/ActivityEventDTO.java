@@ -0,0 +1,26 @@
+package tally.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tally.example.demo.model.ActivityEvent;
+
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ActivityEventDTO {
+    private Long id;
+    private ActivityEvent.Type type;
+    private Long actorId;
+    private String actorName;
+    private Long billId;
+    private String billName;
+    private Long otherUserId;
+    private String otherUserName;
+    private BigDecimal amount;
+    private LocalDateTime createdAt;
+}
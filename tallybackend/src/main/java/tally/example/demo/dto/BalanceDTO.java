@@ -0,0 +1,17 @@
+package tally.example.demo.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceDTO {
+    private Long counterpartyId;
+    private String counterpartyName;
+    // Positive when the counterparty owes the user, negative when the user owes them
+    private BigDecimal amount;
+}
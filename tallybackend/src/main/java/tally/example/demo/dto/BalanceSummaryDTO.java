@@ -0,0 +1,18 @@
+package tally.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class BalanceSummaryDTO {
+    private Long userId;
+    private BigDecimal owes = BigDecimal.ZERO;
+    private BigDecimal owed = BigDecimal.ZERO;
+    private BigDecimal net = BigDecimal.ZERO;
+    private List<BalanceDTO> balances = new ArrayList<>();
+}
@@ -0,0 +1,24 @@
+package tally.example.demo.dto;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A delta pushed to subscribers: the bill id plus only the fields that changed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BillEventDTO {
+    public enum Type { CREATED, PAID, DELETED }
+
+    private Type type;
+    private Long billId;
+    private Long version;
+    private Long actorId;
+    private Map<String, Object> changes;
+}
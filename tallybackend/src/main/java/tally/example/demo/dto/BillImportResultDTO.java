@@ -0,0 +1,31 @@
+package tally.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class BillImportResultDTO {
+    // Bills seen, whether imported or not
+    private int total;
+    private int imported;
+    private int failed;
+    // Set when the input stopped parsing part way; bills before that point are still counted
+    private boolean aborted;
+    // Capped so a bad file can't grow the response without bound; failed has the full count
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        // 1-based bill index for JSON, first data row of the bill for CSV
+        private long row;
+        private String ref;
+        private String error;
+    }
+}
@@ -0,0 +1,17 @@
+package tally.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillPageDTO {
+    private List<BillDTO> bills = new ArrayList<>();
+    // Null on the last page
+    private String nextCursor;
+}
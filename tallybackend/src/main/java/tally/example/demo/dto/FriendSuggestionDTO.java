@@ -0,0 +1,15 @@
+package tally.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FriendSuggestionDTO {
+    private Long userId;
+    private String name;
+    private String photoUrl;
+    private int mutualFriends;
+}
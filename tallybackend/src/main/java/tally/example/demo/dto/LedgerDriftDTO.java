@@ -0,0 +1,29 @@
+package tally.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class LedgerDriftDTO {
+    private int pairsChecked;
+    private int driftedPairs;
+    private boolean rebuilt;
+    // Capped sample of the mismatches; driftedPairs has the full count
+    private List<PairDrift> drifts = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PairDrift {
+        private Long userId;
+        private Long counterpartyId;
+        private BigDecimal expected;
+        private BigDecimal actual;
+    }
+}
@@ -0,0 +1,17 @@
+package tally.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class SettlementPlanDTO {
+    private int members;
+    private int openBalances;
+    // True when the group was small enough to guarantee the fewest possible transfers
+    private boolean exact;
+    private List<SettlementDTO> transfers = new ArrayList<>();
+}
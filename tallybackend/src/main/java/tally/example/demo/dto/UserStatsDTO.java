@@ -0,0 +1,47 @@
+package tally.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class UserStatsDTO {
+    private Long userId;
+    private YearMonth from;
+    private YearMonth to;
+    // Sums over the whole range
+    private BigDecimal spent = BigDecimal.ZERO;
+    private BigDecimal owed = BigDecimal.ZERO;
+    private BigDecimal paid = BigDecimal.ZERO;
+    private BigDecimal received = BigDecimal.ZERO;
+    private int billCount;
+    // Every month of the range, oldest first, months without bills included as zeros
+    private List<MonthStats> months = new ArrayList<>();
+    private List<ItemStats> topItems = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthStats {
+        private YearMonth month;
+        private BigDecimal spent;
+        private BigDecimal owed;
+        private BigDecimal paid;
+        private BigDecimal received;
+        private int billCount;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemStats {
+        private String name;
+        private BigDecimal amount;
+    }
+}
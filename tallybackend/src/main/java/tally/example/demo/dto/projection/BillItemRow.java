@@ -0,0 +1,14 @@
+package tally.example.demo.dto.projection;
+
+import java.math.BigDecimal;
+
+import lombok.Value;
+
+@Value
+public class BillItemRow {
+    Long billId;
+    Long id;
+    String name;
+    BigDecimal price;
+    Integer quantity;
+}
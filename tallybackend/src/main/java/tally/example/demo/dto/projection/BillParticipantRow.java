@@ -0,0 +1,15 @@
+package tally.example.demo.dto.projection;
+
+import java.math.BigDecimal;
+
+import lombok.Value;
+
+@Value
+public class BillParticipantRow {
+    Long billId;
+    Long id;
+    Long userId;
+    String userName;
+    BigDecimal amount;
+    Boolean paid;
+}
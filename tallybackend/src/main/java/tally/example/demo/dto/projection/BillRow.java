@@ -0,0 +1,18 @@
+package tally.example.demo.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.Value;
+
+// Bill header selected straight from JPQL; never attached to a persistence context
+@Value
+public class BillRow {
+    Long id;
+    String name;
+    Long creatorId;
+    Long payerId;
+    BigDecimal tax;
+    BigDecimal tip;
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,12 @@
+package tally.example.demo.dto.projection;
+
+import lombok.Value;
+
+// Just what the search index keeps per user
+@Value
+public class UserSearchRow {
+    Long id;
+    String name;
+    String email;
+    String photoUrl;
+}
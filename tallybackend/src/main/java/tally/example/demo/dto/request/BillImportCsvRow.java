@@ -0,0 +1,33 @@
+package tally.example.demo.dto.request;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One CSV line of a bill import. Consecutive lines sharing a {@code ref} form
+ * one bill; bill-level columns are read from its first line, and each line may
+ * add an item, a split, or both.
+ */
+@Data
+@NoArgsConstructor
+@JsonPropertyOrder({"ref", "name", "payerId", "tax", "tip",
+    "itemName", "itemPrice", "itemQuantity", "splitUserId", "splitAmount", "creatorId", "createdAt"})
+public class BillImportCsvRow {
+    private String ref;
+    private String name;
+    private Long payerId;
+    private BigDecimal tax;
+    private BigDecimal tip;
+    private String itemName;
+    private BigDecimal itemPrice;
+    private Integer itemQuantity;
+    private Long splitUserId;
+    private BigDecimal splitAmount;
+    private Long creatorId;
+    private LocalDateTime createdAt;
+}
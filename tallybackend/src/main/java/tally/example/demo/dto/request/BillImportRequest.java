@@ -0,0 +1,20 @@
+package tally.example.demo.dto.request;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * One imported bill. On top of a new bill's fields it can carry the creator
+ * and creation time from an export, so re-imported history keeps its dates.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class BillImportRequest extends CreateBillRequest {
+    // Must be the importing user when present
+    private Long creatorId;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,21 @@
+package tally.example.demo.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ReceiptScanJobResponse {
+    private String jobId;
+    private Status status;
+    private ReceiptScanResponse result;
+    private String error;
+
+    public enum Status {
+        PENDING,
+        DONE,
+        FAILED,
+        // The recognition stage was saturated; the image itself may be fine, so resubmit it later
+        BUSY
+    }
+}
@@ -0,0 +1,20 @@
+package tally.example.demo.dto.response;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tally.example.demo.dto.request.CreateBillRequest.BillItemRequest;
+
+@Data
+@NoArgsConstructor
+public class ReceiptScanResponse {
+    private String text;
+    private List<BillItemRequest> items = new ArrayList<>();
+    private BigDecimal tax;
+    private BigDecimal tip;
+    private BigDecimal subtotal;
+    private BigDecimal total;
+}
@@ -0,0 +1,13 @@
+package tally.example.demo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class InvalidIdempotencyKeyException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
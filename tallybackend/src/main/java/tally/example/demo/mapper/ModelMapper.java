@@ -5,10 +5,15 @@ import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
 
+import tally.example.demo.dto.ActivityEventDTO;
 import tally.example.demo.dto.BillDTO;
 import tally.example.demo.dto.BillItemDTO;
 import tally.example.demo.dto.BillParticipantDTO;
 import tally.example.demo.dto.UserDTO;
+import tally.example.demo.dto.projection.BillItemRow;
+import tally.example.demo.dto.projection.BillParticipantRow;
+import tally.example.demo.dto.projection.BillRow;
+import tally.example.demo.model.ActivityEvent;
 import tally.example.demo.model.Bill;
 import tally.example.demo.model.BillItem;
 import tally.example.demo.model.BillParticipant;
@@ -64,6 +69,51 @@ public class ModelMapper {
         return dto;
     }
 
+    public BillDTO toBillDTO(BillRow row) {
+        BillDTO dto = new BillDTO();
+        dto.setId(row.getId());
+        dto.setName(row.getName());
+        dto.setCreatorId(row.getCreatorId());
+        dto.setPayerId(row.getPayerId());
+        dto.setTax(row.getTax());
+        dto.setTip(row.getTip());
+        dto.setCreatedAt(row.getCreatedAt());
+        return dto;
+    }
+
+    public BillItemDTO toBillItemDTO(BillItemRow row) {
+        BillItemDTO dto = new BillItemDTO();
+        dto.setId(row.getId());
+        dto.setName(row.getName());
+        dto.setPrice(row.getPrice());
+        dto.setQuantity(row.getQuantity());
+        return dto;
+    }
+
+    public BillParticipantDTO toBillParticipantDTO(BillParticipantRow row) {
+        BillParticipantDTO dto = new BillParticipantDTO();
+        dto.setId(row.getId());
+        dto.setUserId(row.getUserId());
+        dto.setUserName(row.getUserName());
+        dto.setAmount(row.getAmount());
+        dto.setPaid(row.getPaid());
+        return dto;
+    }
+
+    // Names are filled in by the caller, which resolves all of a page's users at once
+    public ActivityEventDTO toActivityEventDTO(ActivityEvent event) {
+        ActivityEventDTO dto = new ActivityEventDTO();
+        dto.setId(event.getId());
+        dto.setType(event.getType());
+        dto.setActorId(event.getActorId());
+        dto.setBillId(event.getBillId());
+        dto.setBillName(event.getBillName());
+        dto.setOtherUserId(event.getOtherUserId());
+        dto.setAmount(event.getAmount());
+        dto.setCreatedAt(event.getCreatedAt());
+        return dto;
+    }
+
     public List<BillItemDTO> toBillItemDTOs(List<BillItem> items) {
         if (items == null) return null;
         return items.stream()
@@ -0,0 +1,68 @@
+package tally.example.demo.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry in one user's activity feed. Rows are only ever inserted; an event
+ * several users should see is written once per user. Bill name and amounts are
+ * copied in, so the feed still reads correctly after the bill is changed or
+ * deleted, and there is deliberately no foreign key to bills.
+ */
+@Entity
+@Immutable
+@Table(name = "activity_events",
+    indexes = @Index(name = "idx_activity_events_user_id", columnList = "user_id, id"))
+@Data
+@NoArgsConstructor
+public class ActivityEvent {
+    public enum Type { BILL_CREATED, BILL_PAID, BILL_DELETED, FRIEND_ADDED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activity_event_seq")
+    @SequenceGenerator(name = "activity_event_seq", sequenceName = "activity_events_seq", allocationSize = 50)
+    private Long id;
+
+    // Whose feed this row belongs to
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32, nullable = false)
+    private Type type;
+
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Column(name = "bill_id")
+    private Long billId;
+
+    @Column(name = "bill_name")
+    private String billName;
+
+    // The friend for FRIEND_ADDED
+    @Column(name = "other_user_id")
+    private Long otherUserId;
+
+    // The feed owner's share for created and deleted bills; the amount settled for BILL_PAID
+    @Column(precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -13,22 +13,40 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "bills")
+@Table(name = "bills", indexes = @Index(name = "idx_bills_creator_created", columnList = "creator_id, created_at"))
+// items is a bag: join-fetching it next to participants would repeat each item once per
+// participant, so it is left to a single follow-up select
+@NamedEntityGraph(
+    name = "Bill.detail",
+    attributeNodes = @NamedAttributeNode(value = "participants", subgraph = "participantUser"),
+    subgraphs = @NamedSubgraph(name = "participantUser", attributeNodes = @NamedAttributeNode("user"))
+)
+@NamedEntityGraph(
+    name = "Bill.splitSummary",
+    attributeNodes = @NamedAttributeNode(value = "participants", subgraph = "participantUser"),
+    subgraphs = @NamedSubgraph(name = "participantUser", attributeNodes = @NamedAttributeNode("user"))
+)
 @Data
 @NoArgsConstructor
 public class Bill {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bill_seq")
+    @SequenceGenerator(name = "bill_seq", sequenceName = "bills_seq", allocationSize = 50)
     private Long id;
     
     private String name;
@@ -48,12 +66,16 @@ public class Bill {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @JsonManagedReference
-    @OneToMany(mappedBy = "bill", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "bill", cascade = CascadeType.ALL)
     private List<BillItem> items = new ArrayList<>();
 
     @JsonManagedReference
-    @OneToMany(mappedBy = "bill", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "bill", cascade = CascadeType.ALL)
     private Set<BillParticipant> participants = new HashSet<>();
 
     @Override
@@ -1,7 +1,6 @@
 package tally.example.demo.model;
 
 import java.math.BigDecimal;
-import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
@@ -11,27 +10,32 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "bill_participants")
+@Table(name = "bill_participants",
+    indexes = @Index(name = "idx_bill_participants_user_paid_bill", columnList = "user_id, paid, bill_id"))
 @Data
 @NoArgsConstructor
 public class BillParticipant {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bill_participant_seq")
+    @SequenceGenerator(name = "bill_participant_seq", sequenceName = "bill_participants_seq", allocationSize = 50)
     private Long id;
 
     @JsonBackReference
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "bill_id")
     private Bill bill;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -40,9 +44,15 @@ public class BillParticipant {
 
     private Boolean paid = false;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Constant so a participant keeps its bucket in the bill's HashSet while its id is
+    // assigned on persist and its paid flag changes; equals tells participants apart
     @Override
     public int hashCode() {
-        return Objects.hash(id, user, amount, paid);
+        return getClass().hashCode();
     }
 
     @Override
@@ -50,6 +60,7 @@ public class BillParticipant {
         if (this == o) return true;
         if (!(o instanceof BillParticipant)) return false;
         BillParticipant that = (BillParticipant) o;
-        return Objects.equals(id, that.id);
+        // Unsaved participants have no id yet and are never equal to one another
+        return id != null && id.equals(that.id);
     }
 } 
\ No newline at end of file
@@ -1,22 +1,27 @@
 package tally.example.demo.model;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "ux_users_email", columnList = "email", unique = true))
+@NamedEntityGraph(name = "User.friends", attributeNodes = @NamedAttributeNode("friends"))
 @Data
 @NoArgsConstructor
 public class User {
@@ -39,4 +44,20 @@ public class User {
 
     @OneToMany(mappedBy = "user")
     private Set<BillParticipant> participatedBills = new HashSet<>();
+
+    // Lombok's versions would walk friends and participatedBills, initializing
+    // lazy collections while Hibernate is still populating them. Only the id is
+    // hashed, matching equals, so renaming a user doesn't move it in a set
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof User)) return false;
+        User user = (User) o;
+        return Objects.equals(id, user.id);
+    }
 } 
\ No newline at end of file
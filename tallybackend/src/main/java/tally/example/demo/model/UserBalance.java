@@ -0,0 +1,57 @@
+package tally.example.demo.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Net amount outstanding between two users. Each pair is stored once with the
+ * lower id in {@code userId}; a positive amount means {@code userId} owes
+ * {@code counterpartyId}, a negative one the reverse.
+ */
+@Entity
+@Table(name = "user_balances",
+    indexes = @Index(name = "idx_user_balances_counterparty", columnList = "counterparty_id"))
+@IdClass(UserBalance.Key.class)
+@Data
+@NoArgsConstructor
+public class UserBalance {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "counterparty_id")
+    private Long counterpartyId;
+
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long userId;
+        private Long counterpartyId;
+    }
+}
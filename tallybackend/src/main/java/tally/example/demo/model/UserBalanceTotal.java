@@ -0,0 +1,36 @@
+package tally.example.demo.model;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Per-user sums of the pairwise ledger, moved by the same deltas as the user's pairs
+@Entity
+@Table(name = "user_balance_totals")
+@Data
+@NoArgsConstructor
+public class UserBalanceTotal {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal owes = BigDecimal.ZERO;
+
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal owed = BigDecimal.ZERO;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public UserBalanceTotal(Long userId) {
+        this.userId = userId;
+    }
+}
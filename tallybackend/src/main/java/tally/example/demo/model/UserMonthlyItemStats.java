@@ -0,0 +1,59 @@
+package tally.example.demo.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// What one user spent on items of one name in one month, each item split in proportion to the bill's shares
+@Entity
+@Table(name = "user_monthly_item_stats")
+@IdClass(UserMonthlyItemStats.Key.class)
+@Data
+@NoArgsConstructor
+public class UserMonthlyItemStats {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "month_start")
+    private LocalDate monthStart;
+
+    @Id
+    @Column(name = "item_name")
+    private String itemName;
+
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public UserMonthlyItemStats(Long userId, LocalDate monthStart, String itemName) {
+        this.userId = userId;
+        this.monthStart = monthStart;
+        this.itemName = itemName;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long userId;
+        private LocalDate monthStart;
+        private String itemName;
+    }
+}
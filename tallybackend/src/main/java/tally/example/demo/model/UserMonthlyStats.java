@@ -0,0 +1,73 @@
+package tally.example.demo.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One user's bill totals for one calendar month, moved by deltas whenever a
+ * bill is created, paid or deleted. Bills count in the month they were
+ * created; payments in the month they were made.
+ */
+@Entity
+@Table(name = "user_monthly_stats")
+@IdClass(UserMonthlyStats.Key.class)
+@Data
+@NoArgsConstructor
+public class UserMonthlyStats {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "month_start")
+    private LocalDate monthStart;
+
+    // The user's own shares of the month's bills
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal spent = BigDecimal.ZERO;
+
+    // Other participants' shares of the bills the user paid for
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal owed = BigDecimal.ZERO;
+
+    // Shares the user settled with someone else
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal paid = BigDecimal.ZERO;
+
+    // Shares others settled with the user
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal received = BigDecimal.ZERO;
+
+    @Column(name = "bill_count", nullable = false)
+    private int billCount;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public UserMonthlyStats(Long userId, LocalDate monthStart) {
+        this.userId = userId;
+        this.monthStart = monthStart;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long userId;
+        private LocalDate monthStart;
+    }
+}
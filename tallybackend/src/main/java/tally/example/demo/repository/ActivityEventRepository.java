@@ -0,0 +1,21 @@
+package tally.example.demo.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import tally.example.demo.model.ActivityEvent;
+
+@Repository
+public interface ActivityEventRepository extends JpaRepository<ActivityEvent, Long> {
+    // Both pages walk idx_activity_events_user_id backwards from a point; no sort, no offset
+    @Query("SELECT e FROM ActivityEvent e WHERE e.userId = :userId ORDER BY e.id DESC")
+    List<ActivityEvent> findLatest(@Param("userId") Long userId, Pageable page);
+
+    @Query("SELECT e FROM ActivityEvent e WHERE e.userId = :userId AND e.id < :beforeId ORDER BY e.id DESC")
+    List<ActivityEvent> findBefore(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Pageable page);
+}
@@ -1,10 +1,28 @@
 package tally.example.demo.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import tally.example.demo.model.BillParticipant;
 
 @Repository
 public interface BillParticipantRepository extends JpaRepository<BillParticipant, Long> {
-} 
\ No newline at end of file
+    // Settle-up reads just the payer's own rows, with the bill header for the creditor
+    @Query("SELECT p FROM BillParticipant p JOIN FETCH p.bill " +
+           "WHERE p.bill.id = :billId AND p.user.id = :userId AND p.paid = false")
+    List<BillParticipant> findUnpaid(@Param("billId") Long billId, @Param("userId") Long userId);
+
+    @Query("SELECT p.user.id FROM BillParticipant p WHERE p.bill.id = :billId")
+    List<Long> findUserIdsByBillId(@Param("billId") Long billId);
+
+    // Single-row write; 0 means someone else changed the row since it was read
+    @Modifying
+    @Query("UPDATE BillParticipant p SET p.paid = true, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.version = :version AND p.paid = false")
+    int markPaid(@Param("id") Long id, @Param("version") Long version);
+}
@@ -1,31 +1,103 @@
 package tally.example.demo.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import tally.example.demo.dto.projection.BillItemRow;
+import tally.example.demo.dto.projection.BillParticipantRow;
+import tally.example.demo.dto.projection.BillRow;
 import tally.example.demo.model.Bill;
 
 @Repository
 public interface BillRepository extends JpaRepository<Bill, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
+    // Created-or-joined as a union so each side can use its own index; an OR across both scans bills
+    String BILL_IDS_FOR_USER =
+        "SELECT c.id FROM Bill c WHERE c.creatorId = :userId " +
+        "UNION SELECT p.bill.id FROM BillParticipant p WHERE p.user.id = :userId";
+
     @Override
     @NonNull
     Optional<Bill> findById(@NonNull Long id);
 
-    @Query("SELECT DISTINCT b FROM Bill b " +
-           "LEFT JOIN FETCH b.items " +
-           "LEFT JOIN FETCH b.participants p " +
-           "LEFT JOIN FETCH p.user " +
-           "WHERE b.creatorId = :userId OR p.user.id = :userId")
-    List<Bill> findByCreatorIdOrParticipantUserId(@Param("userId") Long userId);
+    @EntityGraph("Bill.detail")
+    Optional<Bill> findDetailById(Long id);
+
+    @EntityGraph("Bill.splitSummary")
+    Optional<Bill> findSplitSummaryById(Long id);
+
+    @Override
+    @NonNull
+    @EntityGraph("Bill.detail")
+    List<Bill> findAll();
+
+    // Phase 1 of the bill listing: one page of bill headers by keyset on (createdAt, id), newest first
+    @Query("SELECT new tally.example.demo.dto.projection.BillRow(" +
+           "b.id, b.name, b.creatorId, b.payerId, b.tax, b.tip, b.createdAt) " +
+           "FROM Bill b " +
+           "WHERE b.id IN (" + BILL_IDS_FOR_USER + ") " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BillRow> findPageForUser(@Param("userId") Long userId, Pageable page);
+
+    @Query("SELECT new tally.example.demo.dto.projection.BillRow(" +
+           "b.id, b.name, b.creatorId, b.payerId, b.tax, b.tip, b.createdAt) " +
+           "FROM Bill b " +
+           "WHERE b.id IN (" + BILL_IDS_FOR_USER + ") " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BillRow> findPageForUserBefore(
+        @Param("userId") Long userId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable page);
+
+    // Export: forward-only scans read in fetch-size slices; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new tally.example.demo.dto.projection.BillRow(" +
+           "b.id, b.name, b.creatorId, b.payerId, b.tax, b.tip, b.createdAt) " +
+           "FROM Bill b " +
+           "WHERE b.id IN (" + BILL_IDS_FOR_USER + ") " +
+           "ORDER BY b.createdAt, b.id")
+    Stream<BillRow> streamRowsForUser(@Param("userId") Long userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new tally.example.demo.dto.projection.BillRow(" +
+           "b.id, b.name, b.creatorId, b.payerId, b.tax, b.tip, b.createdAt) " +
+           "FROM Bill b ORDER BY b.createdAt, b.id")
+    Stream<BillRow> streamAllRows();
+
+    // Phase 2 for the listing: flat child rows for the whole page, grouped by bill in the service
+    @Query("SELECT new tally.example.demo.dto.projection.BillItemRow(" +
+           "i.bill.id, i.id, i.name, i.price, i.quantity) " +
+           "FROM BillItem i WHERE i.bill.id IN :billIds ORDER BY i.id")
+    List<BillItemRow> findItemRowsByBillIdIn(@Param("billIds") Collection<Long> billIds);
+
+    @Query("SELECT new tally.example.demo.dto.projection.BillParticipantRow(" +
+           "p.bill.id, p.id, u.id, u.name, p.amount, p.paid) " +
+           "FROM BillParticipant p JOIN p.user u WHERE p.bill.id IN :billIds ORDER BY p.id")
+    List<BillParticipantRow> findParticipantRowsByBillIdIn(@Param("billIds") Collection<Long> billIds);
+
+    // The bill's version plus its participants'; settling a share bumps only the participant row, so this still moves
+    @Query("SELECT b.version + COALESCE((SELECT SUM(p.version) FROM BillParticipant p WHERE p.bill.id = b.id), 0) " +
+           "FROM Bill b WHERE b.id = :id")
+    Optional<Long> findChangeStampById(@Param("id") Long id);
 
-    @Modifying
-    @Query("UPDATE Bill b SET b.creatorId = :newId WHERE b.creatorId = :oldId")
-    void updateCreatorUid(@Param("oldId") Long oldId, @Param("newId") Long newId);
+    // Loaded rather than bulk-updated: moving a creator moves what the ledger and the stats hold for their bills
+    @EntityGraph("Bill.detail")
+    List<Bill> findByCreatorId(Long creatorId);
 } 
\ No newline at end of file
@@ -0,0 +1,148 @@
+package tally.example.demo.repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.Session;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Adds deltas to ledger and stats rows with a single insert-or-update statement, so the
+ * first write for a key can't race another one into a duplicate key. The
+ * statement is vendor specific: {@code INSERT ... ON DUPLICATE KEY UPDATE} on
+ * MySQL and {@code MERGE} on H2. H2 checks for the row before inserting it,
+ * so a first write can still collide there; the merge is then run again and
+ * finds the row the other writer committed.
+ *
+ * Statements run on the session's connection rather than as native queries:
+ * a failed JPA query marks the transaction rollback-only, a failed JDBC
+ * statement only fails itself.
+ */
+@Repository
+public class UpsertRepository {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final String DUPLICATE_KEY = "23505";
+
+    private static final String MYSQL_BALANCE =
+        "INSERT INTO user_balances (user_id, counterparty_id, amount, updated_at, version) " +
+        "VALUES (?, ?, ?, ?, 0) AS incoming " +
+        "ON DUPLICATE KEY UPDATE amount = user_balances.amount + incoming.amount, " +
+        "updated_at = incoming.updated_at, version = user_balances.version + 1";
+
+    private static final String H2_BALANCE =
+        "MERGE INTO user_balances b " +
+        "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), " +
+        "CAST(? AS NUMERIC(12,2)), CAST(? AS TIMESTAMP(6)))) " +
+        "AS incoming (user_id, counterparty_id, amount, updated_at) " +
+        "ON b.user_id = incoming.user_id AND b.counterparty_id = incoming.counterparty_id " +
+        "WHEN MATCHED THEN UPDATE SET amount = b.amount + incoming.amount, " +
+        "updated_at = incoming.updated_at, version = b.version + 1 " +
+        "WHEN NOT MATCHED THEN INSERT (user_id, counterparty_id, amount, updated_at, version) " +
+        "VALUES (incoming.user_id, incoming.counterparty_id, incoming.amount, incoming.updated_at, 0)";
+
+    private static final String MYSQL_TOTALS =
+        "INSERT INTO user_balance_totals (user_id, owes, owed, version) " +
+        "VALUES (?, ?, ?, 0) AS incoming " +
+        "ON DUPLICATE KEY UPDATE owes = user_balance_totals.owes + incoming.owes, " +
+        "owed = user_balance_totals.owed + incoming.owed, version = user_balance_totals.version + 1";
+
+    private static final String H2_TOTALS =
+        "MERGE INTO user_balance_totals t " +
+        "USING (VALUES (CAST(? AS BIGINT), CAST(? AS NUMERIC(12,2)), CAST(? AS NUMERIC(12,2)))) " +
+        "AS incoming (user_id, owes, owed) " +
+        "ON t.user_id = incoming.user_id " +
+        "WHEN MATCHED THEN UPDATE SET owes = t.owes + incoming.owes, owed = t.owed + incoming.owed, " +
+        "version = t.version + 1 " +
+        "WHEN NOT MATCHED THEN INSERT (user_id, owes, owed, version) " +
+        "VALUES (incoming.user_id, incoming.owes, incoming.owed, 0)";
+
+    private static final String MYSQL_MONTH =
+        "INSERT INTO user_monthly_stats (user_id, month_start, spent, owed, paid, received, bill_count, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, 0) AS incoming " +
+        "ON DUPLICATE KEY UPDATE spent = user_monthly_stats.spent + incoming.spent, " +
+        "owed = user_monthly_stats.owed + incoming.owed, paid = user_monthly_stats.paid + incoming.paid, " +
+        "received = user_monthly_stats.received + incoming.received, " +
+        "bill_count = user_monthly_stats.bill_count + incoming.bill_count, version = user_monthly_stats.version + 1";
+
+    private static final String H2_MONTH =
+        "MERGE INTO user_monthly_stats s " +
+        "USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS NUMERIC(12,2)), CAST(? AS NUMERIC(12,2)), " +
+        "CAST(? AS NUMERIC(12,2)), CAST(? AS NUMERIC(12,2)), CAST(? AS INTEGER))) " +
+        "AS incoming (user_id, month_start, spent, owed, paid, received, bill_count) " +
+        "ON s.user_id = incoming.user_id AND s.month_start = incoming.month_start " +
+        "WHEN MATCHED THEN UPDATE SET spent = s.spent + incoming.spent, owed = s.owed + incoming.owed, " +
+        "paid = s.paid + incoming.paid, received = s.received + incoming.received, " +
+        "bill_count = s.bill_count + incoming.bill_count, version = s.version + 1 " +
+        "WHEN NOT MATCHED THEN INSERT (user_id, month_start, spent, owed, paid, received, bill_count, version) " +
+        "VALUES (incoming.user_id, incoming.month_start, incoming.spent, incoming.owed, incoming.paid, " +
+        "incoming.received, incoming.bill_count, 0)";
+
+    private static final String MYSQL_ITEM =
+        "INSERT INTO user_monthly_item_stats (user_id, month_start, item_name, amount, version) " +
+        "VALUES (?, ?, ?, ?, 0) AS incoming " +
+        "ON DUPLICATE KEY UPDATE amount = user_monthly_item_stats.amount + incoming.amount, " +
+        "version = user_monthly_item_stats.version + 1";
+
+    private static final String H2_ITEM =
+        "MERGE INTO user_monthly_item_stats s " +
+        "USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS VARCHAR(255)), CAST(? AS NUMERIC(12,2)))) " +
+        "AS incoming (user_id, month_start, item_name, amount) " +
+        "ON s.user_id = incoming.user_id AND s.month_start = incoming.month_start " +
+        "AND s.item_name = incoming.item_name " +
+        "WHEN MATCHED THEN UPDATE SET amount = s.amount + incoming.amount, version = s.version + 1 " +
+        "WHEN NOT MATCHED THEN INSERT (user_id, month_start, item_name, amount, version) " +
+        "VALUES (incoming.user_id, incoming.month_start, incoming.item_name, incoming.amount, 0)";
+
+    private final EntityManager entityManager;
+    private final boolean h2;
+
+    public UpsertRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.h2 = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect() instanceof H2Dialect;
+    }
+
+    public void addToBalance(Long userId, Long counterpartyId, BigDecimal delta, LocalDateTime now) {
+        upsert(h2 ? H2_BALANCE : MYSQL_BALANCE, userId, counterpartyId, delta, now);
+    }
+
+    public void addToTotals(Long userId, BigDecimal owes, BigDecimal owed) {
+        upsert(h2 ? H2_TOTALS : MYSQL_TOTALS, userId, owes, owed);
+    }
+
+    public void addToMonth(Long userId, LocalDate monthStart, BigDecimal spent, BigDecimal owed, BigDecimal paid,
+            BigDecimal received, int billCount) {
+        upsert(h2 ? H2_MONTH : MYSQL_MONTH, userId, monthStart, spent, owed, paid, received, billCount);
+    }
+
+    public void addToItem(Long userId, LocalDate monthStart, String itemName, BigDecimal amount) {
+        upsert(h2 ? H2_ITEM : MYSQL_ITEM, userId, monthStart, itemName, amount);
+    }
+
+    private void upsert(String sql, Object... params) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    statement.setObject(i + 1, params[i]);
+                }
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        statement.executeUpdate();
+                        return;
+                    } catch (SQLException e) {
+                        if (!DUPLICATE_KEY.equals(e.getSQLState()) || attempt >= MAX_ATTEMPTS) {
+                            throw e;
+                        }
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package tally.example.demo.repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import tally.example.demo.model.UserBalance;
+
+@Repository
+public interface UserBalanceRepository extends JpaRepository<UserBalance, UserBalance.Key> {
+    @Query("SELECT b FROM UserBalance b WHERE (b.userId = :userId OR b.counterpartyId = :userId) AND b.amount <> 0")
+    List<UserBalance> findOpenForUser(@Param("userId") Long userId);
+
+    @Query("SELECT b FROM UserBalance b " +
+           "WHERE b.userId IN :userIds AND b.counterpartyId IN :userIds AND b.amount <> 0")
+    List<UserBalance> findOpenAmong(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT b.amount FROM UserBalance b WHERE b.userId = :userId AND b.counterpartyId = :counterpartyId")
+    BigDecimal findAmount(@Param("userId") Long userId, @Param("counterpartyId") Long counterpartyId);
+
+    // Ledger rebuild source: unpaid shares grouped by (debtor, creditor); rows are Object[]{Long, Long, BigDecimal}
+    @Query("SELECT p.user.id, COALESCE(b.payerId, b.creatorId), SUM(p.amount) " +
+           "FROM BillParticipant p JOIN p.bill b " +
+           "WHERE p.paid = false AND p.amount IS NOT NULL " +
+           "GROUP BY p.user.id, COALESCE(b.payerId, b.creatorId)")
+    List<Object[]> sumUnpaidByDebtorAndCreditor();
+}
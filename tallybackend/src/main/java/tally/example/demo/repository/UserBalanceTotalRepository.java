@@ -0,0 +1,10 @@
+package tally.example.demo.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import tally.example.demo.model.UserBalanceTotal;
+
+@Repository
+public interface UserBalanceTotalRepository extends JpaRepository<UserBalanceTotal, Long> {
+}
@@ -0,0 +1,26 @@
+package tally.example.demo.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import tally.example.demo.model.UserMonthlyItemStats;
+
+@Repository
+public interface UserMonthlyItemStatsRepository extends JpaRepository<UserMonthlyItemStats, UserMonthlyItemStats.Key> {
+    // Rows are Object[]{String, BigDecimal}, largest amount first
+    @Query("SELECT s.itemName, SUM(s.amount) FROM UserMonthlyItemStats s " +
+           "WHERE s.userId = :userId AND s.monthStart BETWEEN :from AND :to " +
+           "GROUP BY s.itemName HAVING SUM(s.amount) > 0 " +
+           "ORDER BY SUM(s.amount) DESC, s.itemName")
+    List<Object[]> findTopItems(
+        @Param("userId") Long userId,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to,
+        Pageable page);
+}
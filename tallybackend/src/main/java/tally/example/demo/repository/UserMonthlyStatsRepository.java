@@ -0,0 +1,21 @@
+package tally.example.demo.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import tally.example.demo.model.UserMonthlyStats;
+
+@Repository
+public interface UserMonthlyStatsRepository extends JpaRepository<UserMonthlyStats, UserMonthlyStats.Key> {
+    @Query("SELECT s FROM UserMonthlyStats s " +
+           "WHERE s.userId = :userId AND s.monthStart BETWEEN :from AND :to ORDER BY s.monthStart")
+    List<UserMonthlyStats> findRange(
+        @Param("userId") Long userId,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to);
+}
@@ -1,16 +1,29 @@
 package tally.example.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import tally.example.demo.dto.projection.UserSearchRow;
 import tally.example.demo.model.User;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    int SEARCH_FETCH_SIZE = 1000;
+
     Optional<User> findByEmail(String email);
     List<User> findByIdIn(List<Long> ids);
     
@@ -18,5 +31,38 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @NonNull
     Optional<User> findById(@NonNull Long id);
 
+    @EntityGraph("User.friends")
+    Optional<User> findWithFriendsById(Long id);
+
+    // Friend edges are read and written as rows; going through User.friends would load and rewrite the whole set
+    @Query(value = "SELECT user_id, friend_id FROM user_friends WHERE user_id IN (:userIds)", nativeQuery = true)
+    List<Object[]> findFriendEdges(@Param("userIds") Collection<Long> userIds);
+
+    // Whose friend lists show the user; edges are one-way, so these are not the user's own friends
+    @Query(value = "SELECT user_id FROM user_friends WHERE friend_id = :friendId", nativeQuery = true)
+    List<Long> findUserIdsByFriendId(@Param("friendId") Long friendId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_friends (user_id, friend_id) SELECT :userId, :friendId FROM DUAL " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM user_friends WHERE user_id = :userId AND friend_id = :friendId)",
+           nativeQuery = true)
+    int insertFriendEdge(@Param("userId") Long userId, @Param("friendId") Long friendId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_friends WHERE user_id = :userId AND friend_id = :friendId", nativeQuery = true)
+    int deleteFriendEdge(@Param("userId") Long userId, @Param("friendId") Long friendId);
+
+    // Feeds the in-memory search index at startup
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + SEARCH_FETCH_SIZE))
+    @Query("SELECT new tally.example.demo.dto.projection.UserSearchRow(u.id, u.name, u.email, u.photoUrl) " +
+           "FROM User u WHERE u.active = true")
+    Stream<UserSearchRow> streamSearchRows();
+
+    // Used only while the search index is still being built; prefix must already be lowercased and escaped
+    @Query("SELECT u FROM User u WHERE u.active = true " +
+           "AND (LOWER(u.name) LIKE CONCAT(:prefix, '%') ESCAPE '\\' OR LOWER(u.email) LIKE CONCAT(:prefix, '%') ESCAPE '\\') " +
+           "ORDER BY u.name, u.id")
+    List<User> searchByPrefix(@Param("prefix") String prefix, Pageable page);
+
     // Add any custom query methods here if needed
 } 
\ No newline at end of file
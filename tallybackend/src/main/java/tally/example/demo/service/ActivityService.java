@@ -0,0 +1,131 @@
+package tally.example.demo.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.dto.ActivityCursor;
+import tally.example.demo.dto.ActivityEventDTO;
+import tally.example.demo.dto.ActivityPageDTO;
+import tally.example.demo.mapper.ModelMapper;
+import tally.example.demo.model.ActivityEvent;
+import tally.example.demo.model.Bill;
+import tally.example.demo.model.User;
+import tally.example.demo.repository.ActivityEventRepository;
+import tally.example.demo.repository.UserRepository;
+
+/**
+ * Writes and reads the per-user activity feed. Writes join the caller's
+ * transaction, so a feed entry exists exactly when the change it describes
+ * was committed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActivityService {
+    public static final int DEFAULT_PAGE_SIZE = 30;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final ActivityEventRepository activityEventRepository;
+    private final UserRepository userRepository;
+    private final ModelMapper modelMapper;
+
+    /**
+     * Adds the bill event to each recipient's feed.
+     *
+     * @param amountFor the amount to show a given recipient, or null for none
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBill(ActivityEvent.Type type, Bill bill, Long actorId, Set<Long> recipientIds,
+            Function<Long, BigDecimal> amountFor) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ActivityEvent> events = new ArrayList<>(recipientIds.size());
+        for (Long recipientId : recipientIds) {
+            ActivityEvent event = newEvent(recipientId, type, actorId, now);
+            event.setBillId(bill.getId());
+            event.setBillName(bill.getName());
+            event.setAmount(amountFor.apply(recipientId));
+            events.add(event);
+        }
+        // Sequence ids with allocationSize 50, so these go out as one JDBC batch
+        activityEventRepository.saveAll(events);
+    }
+
+    // Both ends see it: friendships are one-way, but being added is news to the friend
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordFriendAdded(Long userId, Long friendId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ActivityEvent> events = new ArrayList<>(2);
+        for (Long recipientId : List.of(userId, friendId)) {
+            ActivityEvent event = newEvent(recipientId, ActivityEvent.Type.FRIEND_ADDED, userId, now);
+            event.setOtherUserId(friendId);
+            events.add(event);
+        }
+        activityEventRepository.saveAll(events);
+    }
+
+    @Transactional(readOnly = true)
+    public ActivityPageDTO getFeed(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One row past the page tells us whether there is a next page
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<ActivityEvent> events = cursor == null || cursor.isBlank()
+            ? activityEventRepository.findLatest(userId, page)
+            : activityEventRepository.findBefore(userId, ActivityCursor.decode(cursor).getId(), page);
+        boolean hasMore = events.size() > pageSize;
+        if (hasMore) {
+            events = events.subList(0, pageSize);
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        for (ActivityEvent event : events) {
+            if (event.getActorId() != null) {
+                userIds.add(event.getActorId());
+            }
+            if (event.getOtherUserId() != null) {
+                userIds.add(event.getOtherUserId());
+            }
+        }
+        // Names are looked up rather than copied in, so renames show up in old entries too
+        Map<Long, String> names = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            for (User user : userRepository.findByIdIn(new ArrayList<>(userIds))) {
+                names.put(user.getId(), user.getName());
+            }
+        }
+
+        List<ActivityEventDTO> dtos = new ArrayList<>(events.size());
+        for (ActivityEvent event : events) {
+            ActivityEventDTO dto = modelMapper.toActivityEventDTO(event);
+            dto.setActorName(names.get(event.getActorId()));
+            dto.setOtherUserName(names.get(event.getOtherUserId()));
+            dtos.add(dto);
+        }
+        String nextCursor = hasMore ? new ActivityCursor(events.get(events.size() - 1).getId()).encode() : null;
+        log.debug("Loaded {} activity events for user {}", dtos.size(), userId);
+        return new ActivityPageDTO(dtos, nextCursor);
+    }
+
+    private static ActivityEvent newEvent(Long userId, ActivityEvent.Type type, Long actorId, LocalDateTime now) {
+        ActivityEvent event = new ActivityEvent();
+        event.setUserId(userId);
+        event.setType(type);
+        event.setActorId(actorId);
+        event.setCreatedAt(now);
+        return event;
+    }
+}
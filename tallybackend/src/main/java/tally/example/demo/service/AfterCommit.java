@@ -0,0 +1,24 @@
+package tally.example.demo.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// For in-memory state mirrored from the database: a rolled-back write must not show up in it
+final class AfterCommit {
+    private AfterCommit() {
+    }
+
+    /** Runs the action once the current transaction commits, or right away if there is none. */
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
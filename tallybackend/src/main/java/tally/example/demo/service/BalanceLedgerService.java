@@ -0,0 +1,291 @@
+package tally.example.demo.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.dto.BalanceDTO;
+import tally.example.demo.dto.BalanceSummaryDTO;
+import tally.example.demo.dto.LedgerDriftDTO;
+import tally.example.demo.model.Bill;
+import tally.example.demo.model.BillParticipant;
+import tally.example.demo.model.User;
+import tally.example.demo.model.UserBalance;
+import tally.example.demo.model.UserBalanceTotal;
+import tally.example.demo.repository.UpsertRepository;
+import tally.example.demo.repository.UserBalanceRepository;
+import tally.example.demo.repository.UserBalanceTotalRepository;
+import tally.example.demo.repository.UserRepository;
+
+/**
+ * Keeps the pairwise {@code user_balances} ledger and the per-user totals in
+ * step with bills. Every unpaid share is a debt from the participant to the
+ * bill's payer (the creator when no payer is set). Bill writes call in here
+ * inside their own transaction, so the ledger commits or rolls back with them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceLedgerService {
+    private static final int MAX_REPORTED_DRIFTS = 50;
+    private static final Comparator<Pair> PAIR_ORDER =
+        Comparator.comparing(Pair::getUserId).thenComparing(Pair::getCounterpartyId);
+
+    private final UserBalanceRepository balanceRepository;
+    private final UserBalanceTotalRepository totalRepository;
+    private final UpsertRepository upsertRepository;
+    private final UserRepository userRepository;
+
+    // sign is 1 when the bill is created and -1 when it is deleted
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyBill(Bill bill, int sign) {
+        Map<Pair, BigDecimal> deltas = new HashMap<>();
+        addBill(deltas, bill, sign);
+        apply(deltas);
+    }
+
+    // Bulk variant for imports: deltas are merged first, so each pair and user is written once per call
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyBills(Collection<Bill> bills) {
+        Map<Pair, BigDecimal> deltas = new HashMap<>();
+        for (Bill bill : bills) {
+            addBill(deltas, bill, 1);
+        }
+        apply(deltas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPayment(Bill bill, BillParticipant participant) {
+        if (participant.getAmount() == null) {
+            return;
+        }
+        Map<Pair, BigDecimal> deltas = new HashMap<>();
+        addDebt(deltas, participant.getUser().getId(), creditorOf(bill), participant.getAmount().negate());
+        apply(deltas);
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceSummaryDTO getTotals(Long userId) {
+        UserBalanceTotal total = totalRepository.findById(userId).orElseGet(() -> new UserBalanceTotal(userId));
+        BalanceSummaryDTO summary = new BalanceSummaryDTO();
+        summary.setUserId(userId);
+        summary.setOwes(total.getOwes());
+        summary.setOwed(total.getOwed());
+        summary.setNet(total.getOwed().subtract(total.getOwes()));
+        return summary;
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceSummaryDTO getBalances(Long userId) {
+        BalanceSummaryDTO summary = getTotals(userId);
+        List<UserBalance> open = balanceRepository.findOpenForUser(userId);
+        List<Long> counterpartyIds = open.stream()
+            .map(balance -> balance.getUserId().equals(userId) ? balance.getCounterpartyId() : balance.getUserId())
+            .collect(Collectors.toList());
+        Map<Long, User> usersById = userRepository.findByIdIn(counterpartyIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        for (UserBalance balance : open) {
+            boolean lowSide = balance.getUserId().equals(userId);
+            Long counterpartyId = lowSide ? balance.getCounterpartyId() : balance.getUserId();
+            // Stored amounts are from the lower id's side; flip them to the requesting user's view
+            BigDecimal amount = lowSide ? balance.getAmount().negate() : balance.getAmount();
+            User counterparty = usersById.get(counterpartyId);
+            summary.getBalances().add(new BalanceDTO(counterpartyId,
+                counterparty != null ? counterparty.getName() : null, amount));
+        }
+        return summary;
+    }
+
+    @Transactional(readOnly = true)
+    public LedgerDriftDTO checkDrift() {
+        return compare(expectedBalances(), balanceRepository.findAll());
+    }
+
+    /**
+     * Recomputes the whole ledger from unpaid bill shares and replaces what is
+     * stored. Bill writes that commit while this runs can be lost, so run it
+     * when traffic is quiet.
+     */
+    @Transactional
+    public LedgerDriftDTO rebuild() {
+        Map<Pair, BigDecimal> expected = expectedBalances();
+        LedgerDriftDTO report = compare(expected, balanceRepository.findAll());
+
+        balanceRepository.deleteAllInBatch();
+        totalRepository.deleteAllInBatch();
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, UserBalanceTotal> totals = new HashMap<>();
+        List<UserBalance> rows = expected.entrySet().stream()
+            .filter(entry -> entry.getValue().signum() != 0)
+            .map(entry -> {
+                Pair pair = entry.getKey();
+                BigDecimal amount = entry.getValue();
+                UserBalanceTotal low = totals.computeIfAbsent(pair.getUserId(), UserBalanceTotal::new);
+                UserBalanceTotal high = totals.computeIfAbsent(pair.getCounterpartyId(), UserBalanceTotal::new);
+                if (amount.signum() > 0) {
+                    low.setOwes(low.getOwes().add(amount));
+                    high.setOwed(high.getOwed().add(amount));
+                } else {
+                    high.setOwes(high.getOwes().add(amount.negate()));
+                    low.setOwed(low.getOwed().add(amount.negate()));
+                }
+                return newBalance(pair, amount, now);
+            })
+            .collect(Collectors.toList());
+        balanceRepository.saveAll(rows);
+        totalRepository.saveAll(totals.values());
+
+        report.setRebuilt(true);
+        log.info("Rebuilt balance ledger: {} pairs, {} had drifted", rows.size(), report.getDriftedPairs());
+        return report;
+    }
+
+    // Disabled unless ledger.drift-check.cron is set
+    @Scheduled(cron = "${ledger.drift-check.cron:-}")
+    @Transactional(readOnly = true)
+    public void scheduledDriftCheck() {
+        LedgerDriftDTO report = compare(expectedBalances(), balanceRepository.findAll());
+        if (report.getDriftedPairs() > 0) {
+            log.warn("Balance ledger drift: {} of {} pairs differ from bills, e.g. {}",
+                report.getDriftedPairs(), report.getPairsChecked(), report.getDrifts().get(0));
+        } else {
+            log.debug("Balance ledger matches bills ({} pairs)", report.getPairsChecked());
+        }
+    }
+
+    private void apply(Map<Pair, BigDecimal> deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        // Sorted so concurrent writers lock pair and total rows in the same order
+        Map<Pair, BigDecimal> ordered = new TreeMap<>(PAIR_ORDER);
+        ordered.putAll(deltas);
+        Map<Long, BigDecimal[]> totalDeltas = new TreeMap<>();
+        ordered.forEach((pair, delta) -> {
+            if (delta.signum() == 0) {
+                return;
+            }
+            upsertRepository.addToBalance(pair.getUserId(), pair.getCounterpartyId(), delta, now);
+            // The row is locked by the upsert above, so this reads the value it produced
+            BigDecimal after = balanceRepository.findAmount(pair.getUserId(), pair.getCounterpartyId());
+            BigDecimal before = after.subtract(delta);
+            // userId owes the positive part of the amount, counterpartyId the negative part
+            BigDecimal lowOwes = positivePart(after).subtract(positivePart(before));
+            BigDecimal highOwes = positivePart(after.negate()).subtract(positivePart(before.negate()));
+            addTotals(totalDeltas, pair.getUserId(), lowOwes, highOwes);
+            addTotals(totalDeltas, pair.getCounterpartyId(), highOwes, lowOwes);
+        });
+        totalDeltas.forEach(this::applyTotals);
+    }
+
+    // Totals move by the same deltas as their pairs, so concurrent writers add up instead of overwriting each other
+    private void applyTotals(Long userId, BigDecimal[] delta) {
+        BigDecimal owes = delta[0];
+        BigDecimal owed = delta[1];
+        if (owes.signum() == 0 && owed.signum() == 0) {
+            return;
+        }
+        upsertRepository.addToTotals(userId, owes, owed);
+    }
+
+    private static void addTotals(Map<Long, BigDecimal[]> totals, Long userId, BigDecimal owes, BigDecimal owed) {
+        BigDecimal[] delta = totals.computeIfAbsent(userId, id -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+        delta[0] = delta[0].add(owes);
+        delta[1] = delta[1].add(owed);
+    }
+
+    private static BigDecimal positivePart(BigDecimal amount) {
+        return amount.signum() > 0 ? amount : BigDecimal.ZERO;
+    }
+
+    private Map<Pair, BigDecimal> expectedBalances() {
+        Map<Pair, BigDecimal> expected = new HashMap<>();
+        for (Object[] row : balanceRepository.sumUnpaidByDebtorAndCreditor()) {
+            addDebt(expected, (Long) row[0], (Long) row[1], (BigDecimal) row[2]);
+        }
+        return expected;
+    }
+
+    private static LedgerDriftDTO compare(Map<Pair, BigDecimal> expected, List<UserBalance> stored) {
+        LedgerDriftDTO report = new LedgerDriftDTO();
+        Map<Pair, BigDecimal> remaining = new HashMap<>(expected);
+        for (UserBalance balance : stored) {
+            Pair pair = new Pair(balance.getUserId(), balance.getCounterpartyId());
+            BigDecimal want = remaining.remove(pair);
+            recordDrift(report, pair, want != null ? want : BigDecimal.ZERO, balance.getAmount());
+        }
+        remaining.forEach((pair, want) -> recordDrift(report, pair, want, BigDecimal.ZERO));
+        return report;
+    }
+
+    private static void recordDrift(LedgerDriftDTO report, Pair pair, BigDecimal expected, BigDecimal actual) {
+        report.setPairsChecked(report.getPairsChecked() + 1);
+        if (expected.compareTo(actual) == 0) {
+            return;
+        }
+        report.setDriftedPairs(report.getDriftedPairs() + 1);
+        if (report.getDrifts().size() < MAX_REPORTED_DRIFTS) {
+            report.getDrifts().add(new LedgerDriftDTO.PairDrift(
+                pair.getUserId(), pair.getCounterpartyId(), expected, actual));
+        }
+    }
+
+    private static void addBill(Map<Pair, BigDecimal> deltas, Bill bill, int sign) {
+        Long creditorId = creditorOf(bill);
+        for (BillParticipant participant : bill.getParticipants()) {
+            if (Boolean.TRUE.equals(participant.getPaid()) || participant.getAmount() == null) {
+                continue;
+            }
+            BigDecimal amount = sign < 0 ? participant.getAmount().negate() : participant.getAmount();
+            addDebt(deltas, participant.getUser().getId(), creditorId, amount);
+        }
+    }
+
+    private static void addDebt(Map<Pair, BigDecimal> deltas, Long debtorId, Long creditorId, BigDecimal amount) {
+        if (debtorId.equals(creditorId)) {
+            return;
+        }
+        if (debtorId < creditorId) {
+            deltas.merge(new Pair(debtorId, creditorId), amount, BigDecimal::add);
+        } else {
+            deltas.merge(new Pair(creditorId, debtorId), amount.negate(), BigDecimal::add);
+        }
+    }
+
+    private static UserBalance newBalance(Pair pair, BigDecimal amount, LocalDateTime now) {
+        UserBalance balance = new UserBalance();
+        balance.setUserId(pair.getUserId());
+        balance.setCounterpartyId(pair.getCounterpartyId());
+        balance.setAmount(amount);
+        balance.setUpdatedAt(now);
+        return balance;
+    }
+
+    private static Long creditorOf(Bill bill) {
+        return bill.getPayerId() != null ? bill.getPayerId() : bill.getCreatorId();
+    }
+
+    // Canonical pair key: lower user id first
+    @Value
+    private static class Pair {
+        Long userId;
+        Long counterpartyId;
+    }
+}
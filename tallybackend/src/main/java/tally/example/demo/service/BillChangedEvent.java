@@ -0,0 +1,13 @@
+package tally.example.demo.service;
+
+import java.util.Set;
+
+import lombok.Value;
+import tally.example.demo.dto.BillEventDTO;
+
+// Published inside the writing transaction; NotificationService delivers it only after commit
+@Value
+public class BillChangedEvent {
+    Set<Long> recipientIds;
+    BillEventDTO payload;
+}
@@ -0,0 +1,184 @@
+package tally.example.demo.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.dto.BillDTO;
+import tally.example.demo.dto.BillItemDTO;
+import tally.example.demo.dto.BillParticipantDTO;
+import tally.example.demo.dto.projection.BillRow;
+import tally.example.demo.repository.BillRepository;
+
+/**
+ * Streams bill history straight from a forward-only query to the response.
+ * Bill headers are read as projections in fetch-size slices and children are
+ * loaded per block, so memory stays flat however many bills there are.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BillExportService {
+    static final int BLOCK_SIZE = 200;
+
+    public enum Format { NDJSON, CSV }
+
+    // Same leading columns as the CSV import, so an export can be re-imported
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+        .addColumn("ref")
+        .addColumn("name")
+        .addColumn("payerId")
+        .addColumn("tax")
+        .addColumn("tip")
+        .addColumn("itemName")
+        .addColumn("itemPrice")
+        .addColumn("itemQuantity")
+        .addColumn("splitUserId")
+        .addColumn("splitAmount")
+        .addColumn("splitPaid")
+        .addColumn("creatorId")
+        .addColumn("createdAt")
+        .build()
+        .withHeader();
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN)
+        .build();
+
+    private final ObjectMapper objectMapper;
+    private final BillRepository billRepository;
+    private final BillService billService;
+
+    /** Exports the bills a user created or takes part in, or every bill when userId is null. */
+    @Transactional(readOnly = true)
+    public void export(Long userId, Format format, OutputStream out) throws IOException {
+        try (BillSink sink = format == Format.CSV ? new CsvSink(out) : new NdjsonSink(out);
+             Stream<BillRow> rows = userId != null
+                 ? billRepository.streamRowsForUser(userId)
+                 : billRepository.streamAllRows()) {
+            List<BillRow> block = new ArrayList<>(BLOCK_SIZE);
+            int exported = 0;
+            Iterator<BillRow> it = rows.iterator();
+            while (it.hasNext()) {
+                block.add(it.next());
+                if (block.size() == BLOCK_SIZE || !it.hasNext()) {
+                    for (BillDTO bill : billService.toBillDTOs(block)) {
+                        sink.write(bill);
+                    }
+                    exported += block.size();
+                    block.clear();
+                    sink.flush();
+                }
+            }
+            log.info("Exported {} bills as {} for {}", exported, format, userId != null ? "user " + userId : "all users");
+        }
+    }
+
+    private interface BillSink extends AutoCloseable {
+        void write(BillDTO bill) throws IOException;
+
+        void flush() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private class NdjsonSink implements BillSink {
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+
+        NdjsonSink(OutputStream out) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Flushing is per block, not per bill
+            writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        public void write(BillDTO bill) throws IOException {
+            writer.writeValue(generator, bill);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    // One line per item/participant pair, mirroring the import layout
+    private static class CsvSink implements BillSink {
+        private final SequenceWriter writer;
+
+        CsvSink(OutputStream out) throws IOException {
+            writer = CSV_MAPPER.writer(CSV_SCHEMA).writeValues(out);
+        }
+
+        @Override
+        public void write(BillDTO bill) throws IOException {
+            List<BillItemDTO> items = bill.getItems();
+            List<BillParticipantDTO> participants = bill.getParticipants();
+            int lines = Math.max(1, Math.max(items.size(), participants.size()));
+            for (int i = 0; i < lines; i++) {
+                BillItemDTO item = i < items.size() ? items.get(i) : null;
+                BillParticipantDTO participant = i < participants.size() ? participants.get(i) : null;
+                writer.write(cells(
+                    bill.getId(),
+                    bill.getName(),
+                    bill.getPayerId(),
+                    bill.getTax(),
+                    bill.getTip(),
+                    item != null ? item.getName() : null,
+                    item != null ? item.getPrice() : null,
+                    item != null ? item.getQuantity() : null,
+                    participant != null ? participant.getUserId() : null,
+                    participant != null ? participant.getAmount() : null,
+                    participant != null ? participant.getPaid() : null,
+                    bill.getCreatorId(),
+                    bill.getCreatedAt() != null ? bill.getCreatedAt().toString() : null));
+            }
+        }
+
+        // The CSV generator drops nulls inside an array row, which would shift every later column
+        private static Object[] cells(Object... values) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    values[i] = "";
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
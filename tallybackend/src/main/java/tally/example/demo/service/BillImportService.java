@@ -0,0 +1,392 @@
+package tally.example.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.dto.BillImportResultDTO;
+import tally.example.demo.dto.request.BillImportCsvRow;
+import tally.example.demo.dto.request.BillImportRequest;
+import tally.example.demo.dto.request.CreateBillRequest;
+import tally.example.demo.model.Bill;
+import tally.example.demo.model.BillSplit;
+import tally.example.demo.model.User;
+import tally.example.demo.repository.BillRepository;
+import tally.example.demo.repository.UserRepository;
+
+/**
+ * Bulk bill import. Input is parsed as a stream and committed in chunks, so
+ * memory is bounded by the chunk size rather than the upload. A failing chunk
+ * rolls back on its own; chunks before it stay committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BillImportService {
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    public static final int MAX_CHUNK_SIZE = 5000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+        .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+        .enable(CsvParser.Feature.TRIM_SPACES)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .addModule(new JavaTimeModule())
+        .build();
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final BillService billService;
+    private final BillRepository billRepository;
+    private final UserRepository userRepository;
+    private final BalanceLedgerService balanceLedgerService;
+    private final UserStatsService userStatsService;
+
+    /** Expects a JSON array of {@link BillImportRequest} objects. */
+    public BillImportResultDTO importJson(InputStream in, Long userId, int chunkSize) throws IOException {
+        Importer importer = new Importer(userId, chunkSize);
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of bills");
+            }
+            long row = 0;
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        throw new IllegalArgumentException("Unexpected end of input");
+                    }
+                    row++;
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        importer.reject(row, null, "Expected a bill object");
+                        continue;
+                    }
+                    // Only this bill's subtree is ever materialised
+                    JsonNode node = parser.readValueAsTree();
+                    try {
+                        importer.add(row, null, objectMapper.treeToValue(node, BillImportRequest.class));
+                    } catch (JsonProcessingException e) {
+                        importer.reject(row, null, e.getOriginalMessage());
+                    }
+                }
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                importer.abort(row + 1, "Malformed JSON: " + message(e));
+            }
+        }
+        return importer.finish();
+    }
+
+    /**
+     * Expects a header row with any subset of the {@link BillImportCsvRow}
+     * columns. Consecutive rows sharing a ref make up one bill; rows are
+     * numbered from 1, not counting the header.
+     */
+    public BillImportResultDTO importCsv(InputStream in, Long userId, int chunkSize) throws IOException {
+        Importer importer = new Importer(userId, chunkSize);
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<Map<String, String>> rows = CSV_MAPPER
+                .readerForMapOf(String.class)
+                .with(schema)
+                .readValues(in)) {
+            CsvBill current = null;
+            long row = 0;
+            try {
+                while (rows.hasNextValue()) {
+                    Map<String, String> raw = rows.nextValue();
+                    row++;
+                    String ref = raw.get("ref");
+                    if (ref == null) {
+                        importer.addCsv(current);
+                        current = null;
+                        importer.reject(row, null, "ref is required");
+                        continue;
+                    }
+                    if (current == null || !current.ref.equals(ref)) {
+                        importer.addCsv(current);
+                        current = new CsvBill(row, ref);
+                    }
+                    current.add(raw);
+                }
+            } catch (IOException | RuntimeException e) {
+                importer.addCsv(current);
+                importer.abort(row + 1, "Malformed CSV: " + message(e));
+                return importer.finish();
+            }
+            importer.addCsv(current);
+        }
+        return importer.finish();
+    }
+
+    private static String message(Exception e) {
+        return e instanceof JsonProcessingException jpe ? jpe.getOriginalMessage() : e.getMessage();
+    }
+
+    /** One bill being assembled from consecutive CSV rows. */
+    private static class CsvBill {
+        final long row;
+        final String ref;
+        final BillImportRequest request = new BillImportRequest();
+        String error;
+
+        CsvBill(long row, String ref) {
+            this.row = row;
+            this.ref = ref;
+            request.setItems(new ArrayList<>());
+            request.setSplits(new ArrayList<>());
+        }
+
+        void add(Map<String, String> raw) {
+            if (error != null) {
+                return;
+            }
+            BillImportCsvRow line;
+            try {
+                line = CSV_MAPPER.convertValue(raw, BillImportCsvRow.class);
+            } catch (IllegalArgumentException e) {
+                error = "Invalid value: " + (e.getCause() instanceof JsonProcessingException jpe
+                    ? jpe.getOriginalMessage() : e.getMessage());
+                return;
+            }
+            // Bill-level columns come from the first row that fills them
+            if (request.getName() == null) {
+                request.setName(line.getName());
+            }
+            if (request.getPayerId() == null) {
+                request.setPayerId(line.getPayerId());
+            }
+            if (request.getTax() == null) {
+                request.setTax(line.getTax());
+            }
+            if (request.getTip() == null) {
+                request.setTip(line.getTip());
+            }
+            if (request.getCreatorId() == null) {
+                request.setCreatorId(line.getCreatorId());
+            }
+            if (request.getCreatedAt() == null) {
+                request.setCreatedAt(line.getCreatedAt());
+            }
+            if (line.getItemName() != null || line.getItemPrice() != null) {
+                CreateBillRequest.BillItemRequest item = new CreateBillRequest.BillItemRequest();
+                item.setName(line.getItemName());
+                item.setPrice(line.getItemPrice());
+                if (line.getItemQuantity() != null) {
+                    item.setQuantity(line.getItemQuantity());
+                }
+                request.getItems().add(item);
+            }
+            if (line.getSplitUserId() != null || line.getSplitAmount() != null) {
+                BillSplit split = new BillSplit();
+                split.setUserId(line.getSplitUserId());
+                split.setAmount(line.getSplitAmount());
+                request.getSplits().add(split);
+            }
+        }
+    }
+
+    @Value
+    private static class Pending {
+        long row;
+        String ref;
+        BillImportRequest request;
+    }
+
+    /** Collects parsed bills and writes them out one chunk per transaction. */
+    private class Importer {
+        private final Long userId;
+        private final int chunkSize;
+        private final BillImportResultDTO result = new BillImportResultDTO();
+        private final List<Pending> pending = new ArrayList<>();
+
+        Importer(Long userId, int chunkSize) {
+            this.userId = userId;
+            this.chunkSize = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+        }
+
+        void addCsv(CsvBill bill) {
+            if (bill == null) {
+                return;
+            }
+            if (bill.error != null) {
+                reject(bill.row, bill.ref, bill.error);
+            } else {
+                add(bill.row, bill.ref, bill.request);
+            }
+        }
+
+        void add(long row, String ref, BillImportRequest request) {
+            String error = validate(request, userId);
+            if (error != null) {
+                reject(row, ref, error);
+                return;
+            }
+            pending.add(new Pending(row, ref, request));
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String ref, String error) {
+            result.setTotal(result.getTotal() + 1);
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(new BillImportResultDTO.RowError(row, ref, error));
+            }
+        }
+
+        // Input became unreadable: keep what parsed cleanly and report where it stopped
+        void abort(long row, String error) {
+            flush();
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(new BillImportResultDTO.RowError(row, null, error));
+            }
+            result.setAborted(true);
+        }
+
+        BillImportResultDTO finish() {
+            flush();
+            log.info("Bill import for user {}: {} imported, {} failed",
+                userId, result.getImported(), result.getFailed());
+            return result;
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Pending> chunk = new ArrayList<>(pending);
+            pending.clear();
+            List<Pending> rejected = new ArrayList<>();
+            List<String> reasons = new ArrayList<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Map<Long, User> usersById = findUsers(chunk);
+                    List<Bill> bills = new ArrayList<>(chunk.size());
+                    for (Pending p : chunk) {
+                        String missing = missingUser(p.getRequest(), usersById);
+                        if (missing != null) {
+                            rejected.add(p);
+                            reasons.add(missing);
+                            continue;
+                        }
+                        Bill bill = billService.newBill(p.getRequest(), userId, usersById);
+                        // Exported history keeps its date, so the stats land in the month it happened
+                        if (p.getRequest().getCreatedAt() != null) {
+                            bill.setCreatedAt(p.getRequest().getCreatedAt());
+                        }
+                        bills.add(bill);
+                    }
+                    billRepository.saveAll(bills);
+                    balanceLedgerService.applyBills(bills);
+                    userStatsService.applyBills(bills);
+                    // The request-scoped persistence context would otherwise keep every imported bill
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+            } catch (RuntimeException e) {
+                log.warn("Bill import chunk of {} rolled back", chunk.size(), e);
+                for (Pending p : chunk) {
+                    reject(p.getRow(), p.getRef(), "Chunk rolled back: " + e.getMessage());
+                }
+                return;
+            }
+            for (int i = 0; i < rejected.size(); i++) {
+                Pending p = rejected.get(i);
+                reject(p.getRow(), p.getRef(), reasons.get(i));
+            }
+            int imported = chunk.size() - rejected.size();
+            result.setTotal(result.getTotal() + imported);
+            result.setImported(result.getImported() + imported);
+        }
+
+        // One lookup for every payer and split user in the chunk
+        private Map<Long, User> findUsers(List<Pending> chunk) {
+            Set<Long> ids = new HashSet<>();
+            for (Pending p : chunk) {
+                if (p.getRequest().getPayerId() != null) {
+                    ids.add(p.getRequest().getPayerId());
+                }
+                p.getRequest().getSplits().forEach(split -> ids.add(split.getUserId()));
+            }
+            if (ids.isEmpty()) {
+                return Map.of();
+            }
+            return userRepository.findByIdIn(new ArrayList<>(ids)).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        }
+    }
+
+    private static String validate(BillImportRequest request, Long userId) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            return "name is required";
+        }
+        // Bills are imported as the caller's own; they can't be attributed to someone else
+        if (request.getCreatorId() != null && !request.getCreatorId().equals(userId)) {
+            return "creatorId must be the importing user";
+        }
+        if (request.getCreatedAt() != null && request.getCreatedAt().isAfter(LocalDateTime.now())) {
+            return "createdAt must not be in the future";
+        }
+        if (request.getItems() != null) {
+            for (CreateBillRequest.BillItemRequest item : request.getItems()) {
+                if (item.getPrice() == null || item.getPrice().signum() < 0) {
+                    return "Every item needs a non-negative price";
+                }
+            }
+        }
+        if (request.getSplits() == null || request.getSplits().isEmpty()) {
+            return "At least one split is required";
+        }
+        for (BillSplit split : request.getSplits()) {
+            if (split.getUserId() == null) {
+                return "Every split needs a userId";
+            }
+            BigDecimal amount = split.getAmount();
+            if (amount == null || amount.signum() < 0) {
+                return "Every split needs a non-negative amount";
+            }
+        }
+        return null;
+    }
+
+    private static String missingUser(CreateBillRequest request, Map<Long, User> usersById) {
+        if (request.getPayerId() != null && !usersById.containsKey(request.getPayerId())) {
+            return "User not found: " + request.getPayerId();
+        }
+        for (BillSplit split : request.getSplits()) {
+            if (!usersById.containsKey(split.getUserId())) {
+                return "User not found: " + split.getUserId();
+            }
+        }
+        return null;
+    }
+}
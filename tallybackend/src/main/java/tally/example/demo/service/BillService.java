@@ -1,54 +1,115 @@
 package tally.example.demo.service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.config.CacheConfig;
+import tally.example.demo.dto.BillCursor;
 import tally.example.demo.dto.BillDTO;
+import tally.example.demo.dto.BillEventDTO;
+import tally.example.demo.dto.BillPageDTO;
 import tally.example.demo.dto.BillSummaryDTO;
 import tally.example.demo.dto.BillSummaryDTO.ItemSummaryDTO;
 import tally.example.demo.dto.BillSummaryDTO.ParticipantSummaryDTO;
+import tally.example.demo.dto.projection.BillItemRow;
+import tally.example.demo.dto.projection.BillParticipantRow;
+import tally.example.demo.dto.projection.BillRow;
+import tally.example.demo.dto.UserDTO;
 import tally.example.demo.dto.request.CreateBillRequest;
 import tally.example.demo.dto.response.BillSummaryResponse;
 import tally.example.demo.exception.ApiException;
+import tally.example.demo.exception.BadRequestException;
 import tally.example.demo.exception.NotFoundException;
 import tally.example.demo.mapper.ModelMapper;
+import tally.example.demo.model.ActivityEvent;
 import tally.example.demo.model.Bill;
 import tally.example.demo.model.BillItem;
 import tally.example.demo.model.BillItemAssignment;
 import tally.example.demo.model.BillParticipant;
 import tally.example.demo.model.BillSplit;
 import tally.example.demo.model.User;
+import tally.example.demo.repository.BillParticipantRepository;
 import tally.example.demo.repository.BillRepository;
 import tally.example.demo.repository.UserRepository;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "tally.bill.service", histogram = true)
 public class BillService {
 
     private final BillRepository billRepository;
+    private final BillParticipantRepository participantRepository;
     private final UserRepository userRepository;
     private final ModelMapper modelMapper;
+    private final BalanceLedgerService balanceLedgerService;
+    private final SplitCalculator splitCalculator;
+    private final UserService userService;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityService activityService;
+    private final UserStatsService userStatsService;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
 
     @Transactional
     public BillDTO createBill(CreateBillRequest request, Long userId) {
-        log.info("Creating bill with request: {}", request);
-        log.info("Splits from request: {}", request.getSplits());
+        log.trace("Creating bill with request: {}", request);
+        
+        Map<Long, User> usersById = request.getSplits() == null || request.getSplits().isEmpty()
+            ? Map.of()
+            : findSplitUsers(request.getSplits());
+        Bill bill = newBill(request, userId, usersById);
+        Bill savedBill = billRepository.save(bill);
+        balanceLedgerService.applyBill(savedBill, 1);
+        userStatsService.applyBill(savedBill, 1);
         
+        log.debug("Bill {} saved with {} participants", savedBill.getId(), savedBill.getParticipants().size());
+        Map<Long, BigDecimal> shares = shares(savedBill);
+        Set<Long> members = members(savedBill, shares.keySet());
+        activityService.recordBill(ActivityEvent.Type.BILL_CREATED, savedBill, userId, members, shares::get);
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("name", savedBill.getName());
+        changes.put("creatorId", savedBill.getCreatorId());
+        changes.put("payerId", savedBill.getPayerId());
+        changes.put("createdAt", savedBill.getCreatedAt());
+        publish(BillEventDTO.Type.CREATED, savedBill, members, userId, savedBill.getVersion(), changes);
+        return modelMapper.toBillDTO(savedBill);
+    }
+
+    // Builds an unsaved bill; usersById must hold every split's user
+    Bill newBill(CreateBillRequest request, Long userId, Map<Long, User> usersById) {
         Bill bill = new Bill();
         bill.setName(request.getName());
         bill.setCreatorId(userId);
@@ -58,7 +119,7 @@ public class BillService {
         bill.setCreatedAt(LocalDateTime.now());
 
         // Create and associate items
-        List<BillItem> items = request.getItems().stream()
+        List<BillItem> items = (request.getItems() != null ? request.getItems() : List.<CreateBillRequest.BillItemRequest>of()).stream()
             .map(itemRequest -> {
                 BillItem item = new BillItem();
                 item.setName(itemRequest.getName());
@@ -72,15 +133,10 @@ public class BillService {
 
         // Handle participants and splits
         Set<BillParticipant> participants = new HashSet<>();
-        if (request.getSplits() != null && !request.getSplits().isEmpty()) {
+        if (request.getSplits() != null) {
             for (BillSplit split : request.getSplits()) {
-                log.info("Processing split for userId: {}", split.getUserId());
-                
-                User participant = userRepository.findById(split.getUserId())
-                    .orElseThrow(() -> new RuntimeException("User not found: " + split.getUserId()));
-                
-                log.info("Found user: {}", participant.getName());
-                
+                User participant = usersById.get(split.getUserId());
+
                 BillParticipant billParticipant = new BillParticipant();
                 billParticipant.setBill(bill);
                 billParticipant.setUser(participant);
@@ -88,59 +144,111 @@ public class BillService {
                 billParticipant.setPaid(false);
                 participants.add(billParticipant);
                 
-                log.info("Added participant {} with amount {}", 
+                log.debug("Added participant {} with amount {}", 
                     participant.getName(), split.getAmount());
             }
         }
 
         bill.setParticipants(participants);
-        Bill savedBill = billRepository.save(bill);
-        
-        log.info("Bill saved. Participants count: {}", savedBill.getParticipants().size());
-        savedBill.getParticipants().forEach(p -> 
-            log.info("Participant: {} with amount {}", p.getUser().getName(), p.getAmount())
-        );
-        
-        BillDTO dto = modelMapper.toBillDTO(savedBill);
-        log.info("Converted to DTO. Participants count: {}", 
-            dto.getParticipants() != null ? dto.getParticipants().size() : 0);
-        
-        return dto;
+        return bill;
     }
 
-    public List<BillDTO> getUserBills(Long userId) {
-        log.info("Getting bills for user ID: {}", userId);
-        
-        List<Bill> bills = billRepository.findByCreatorIdOrParticipantUserId(userId);
-        log.info("Found {} bills in database", bills.size());
-        
-        bills.forEach(bill -> {
-            log.info("Bill: id={}, name={}, creatorId={}, payerId={}, items={}, participants={}",
+    // Resolves every split's user in one query instead of a findById per participant
+    private Map<Long, User> findSplitUsers(List<BillSplit> splits) {
+        List<Long> userIds = splits.stream()
+            .map(BillSplit::getUserId)
+            .distinct()
+            .collect(Collectors.toList());
+        Map<Long, User> usersById = userRepository.findByIdIn(userIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (Long id : userIds) {
+            if (!usersById.containsKey(id)) {
+                throw new RuntimeException("User not found: " + id);
+            }
+        }
+        return usersById;
+    }
+
+    @Transactional(readOnly = true)
+    public BillPageDTO getUserBills(Long userId, String cursor, int size) {
+        log.debug("Getting bills for user ID: {}", userId);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // One row past the page tells us whether there is a next page
+        List<BillRow> rows = findPage(userId, cursor, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        List<BillDTO> dtos = toBillDTOs(rows);
+        // Per-bill lines only when someone is tracing a listing; the loop itself isn't free
+        if (log.isTraceEnabled()) {
+            dtos.forEach(bill -> log.trace("Bill: id={}, name={}, creatorId={}, payerId={}, items={}, participants={}",
                 bill.getId(),
                 bill.getName(),
                 bill.getCreatorId(),
                 bill.getPayerId(),
                 bill.getItems().size(),
-                bill.getParticipants().size()
-            );
-        });
-        
-        List<BillDTO> dtos = bills.stream()
-            .map(modelMapper::toBillDTO)
-            .collect(Collectors.toList());
-            
-        log.info("Converted to {} DTOs", dtos.size());
+                bill.getParticipants().size()));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            BillRow last = rows.get(rows.size() - 1);
+            nextCursor = new BillCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        log.debug("Found {} bills for user {}", dtos.size(), userId);
+        return new BillPageDTO(dtos, nextCursor);
+    }
+
+    private List<BillRow> findPage(Long userId, String cursor, int limit) {
+        Pageable page = PageRequest.of(0, limit);
+        if (cursor == null || cursor.isBlank()) {
+            return billRepository.findPageForUser(userId, page);
+        }
+        BillCursor position = BillCursor.decode(cursor);
+        return billRepository.findPageForUserBefore(userId, position.getCreatedAt(), position.getId(), page);
+    }
+
+    // Builds listing DTOs from projection rows; no entities are loaded, tracked or dirty-checked
+    List<BillDTO> toBillDTOs(List<BillRow> rows) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, BillDTO> billsById = new HashMap<>(rows.size() * 2);
+        List<BillDTO> dtos = new ArrayList<>(rows.size());
+        for (BillRow row : rows) {
+            BillDTO dto = modelMapper.toBillDTO(row);
+            billsById.put(row.getId(), dto);
+            dtos.add(dto);
+        }
+
+        Set<Long> billIds = billsById.keySet();
+        for (BillItemRow item : billRepository.findItemRowsByBillIdIn(billIds)) {
+            billsById.get(item.getBillId()).getItems().add(modelMapper.toBillItemDTO(item));
+        }
+        for (BillParticipantRow participant : billRepository.findParticipantRowsByBillIdIn(billIds)) {
+            billsById.get(participant.getBillId()).getParticipants().add(modelMapper.toBillParticipantDTO(participant));
+        }
         return dtos;
     }
 
+    @Cacheable(cacheNames = CacheConfig.BILL_DETAILS)
+    @Transactional(readOnly = true)
     public BillDTO getBill(Long id) {
-        Bill bill = billRepository.findById(id)
+        Bill bill = billRepository.findDetailById(id)
             .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Bill not found"));
         return modelMapper.toBillDTO(bill);
     }
 
+    @Transactional(readOnly = true)
     public BillSummaryResponse getBillSummary(Long billId) {
-        Bill bill = billRepository.findById(billId)
+        return cachedSplit(billId, "summary", () -> computeBillSummary(billId));
+    }
+
+    private BillSummaryResponse computeBillSummary(Long billId) {
+        Bill bill = billRepository.findSplitSummaryById(billId)
             .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Bill not found"));
 
         BillSummaryResponse summary = new BillSummaryResponse();
@@ -161,43 +269,132 @@ public class BillService {
         return summary;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.BILL_DETAILS, key = "#billId")
     @Transactional
     public void markParticipantAsPaid(Long billId, Long userId) {
-        Bill bill = billRepository.findById(billId)
-            .orElseThrow(() -> new NotFoundException("Bill not found"));
-            
-        User user = userRepository.findById(userId)
+        userService.findUser(userId)
             .orElseThrow(() -> new NotFoundException("User not found"));
 
-        bill.getParticipants().stream()
-            .filter(p -> p.getUser().getId().equals(user.getId()))
-            .findFirst()
-            .ifPresent(participant -> participant.setPaid(true));
+        // Touches only the payer's rows; the rest of the bill is neither loaded nor rewritten
+        List<BillParticipant> unpaid = participantRepository.findUnpaid(billId, userId);
+        if (unpaid.isEmpty()) {
+            if (!billRepository.existsById(billId)) {
+                throw new NotFoundException("Bill not found");
+            }
+            return;
+        }
+        for (BillParticipant participant : unpaid) {
+            if (participantRepository.markPaid(participant.getId(), participant.getVersion()) == 0) {
+                throw new ObjectOptimisticLockingFailureException(BillParticipant.class, participant.getId());
+            }
+            balanceLedgerService.recordPayment(participant.getBill(), participant);
+            userStatsService.recordPayment(participant.getBill(), participant);
+        }
+
+        Bill bill = unpaid.get(0).getBill();
+        BigDecimal settled = unpaid.stream()
+            .map(BillParticipant::getAmount)
+            .filter(Objects::nonNull)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Set<Long> members = members(bill, participantRepository.findUserIdsByBillId(billId));
+        activityService.recordBill(ActivityEvent.Type.BILL_PAID, bill, userId, members, recipient -> settled);
 
-        billRepository.save(bill);
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("userId", userId);
+        changes.put("paid", true);
+        publish(BillEventDTO.Type.PAID, bill, members, userId, billRepository.findChangeStampById(billId).orElse(null), changes);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.BILL_DETAILS, key = "#billId")
     @Transactional
     public void deleteBill(Long billId, Long userId) {
         Bill bill = billRepository.findById(billId)
             .orElseThrow(() -> new NotFoundException("Bill not found"));
             
-        User user = userRepository.findById(userId)
+        UserDTO user = userService.findUser(userId)
             .orElseThrow(() -> new NotFoundException("User not found"));
         
         if (!bill.getCreatorId().equals(user.getId())) {
             throw new ApiException(HttpStatus.FORBIDDEN, "Only the bill creator can delete the bill");
         }
 
+        balanceLedgerService.applyBill(bill, -1);
+        userStatsService.applyBill(bill, -1);
+        Map<Long, BigDecimal> shares = shares(bill);
+        Set<Long> members = members(bill, shares.keySet());
+        activityService.recordBill(ActivityEvent.Type.BILL_DELETED, bill, userId, members, shares::get);
         billRepository.delete(bill);
+        publish(BillEventDTO.Type.DELETED, bill, members, userId, null, null);
     }
 
-    public List<Bill> getBillsForUser(Long userId) {
-        return billRepository.findByCreatorIdOrParticipantUserId(userId);
+    private void publish(BillEventDTO.Type type, Bill bill, Set<Long> recipients, Long actorId,
+            Long version, Map<String, Object> changes) {
+        eventPublisher.publishEvent(new BillChangedEvent(recipients,
+            new BillEventDTO(type, bill.getId(), version, actorId, changes)));
     }
 
-    public BillSummaryDTO calculateBillSplit(Long billId) {
-        Bill bill = billRepository.findById(billId)
+    // Everyone on the bill hears about changes to it, the creator and payer included even without a share
+    private static Set<Long> members(Bill bill, Collection<Long> participantIds) {
+        Set<Long> members = new HashSet<>(participantIds);
+        members.add(bill.getCreatorId());
+        if (bill.getPayerId() != null) {
+            members.add(bill.getPayerId());
+        }
+        return members;
+    }
+
+    private static Map<Long, BigDecimal> shares(Bill bill) {
+        Map<Long, BigDecimal> shares = new HashMap<>();
+        for (BillParticipant participant : bill.getParticipants()) {
+            BigDecimal amount = participant.getAmount() != null ? participant.getAmount() : BigDecimal.ZERO;
+            shares.merge(participant.getUser().getId(), amount, BigDecimal::add);
+        }
+        return shares;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.BILL_DETAILS, allEntries = true)
+    @Transactional
+    public void updateCreatorId(Long oldUserId, Long newUserId) {
+        // The creator is the creditor on bills without a payer, and counts as a member of every bill they made
+        for (Bill bill : billRepository.findByCreatorId(oldUserId)) {
+            balanceLedgerService.applyBill(bill, -1);
+            bill.setCreatorId(newUserId);
+            balanceLedgerService.applyBill(bill, 1);
+            userStatsService.moveBill(bill, oldUserId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public BillSummaryDTO calculateBillSplit(Long billId, SplitCalculator.Mode taxSplit) {
+        return cachedSplit(billId, taxSplit, () -> computeBillSplit(billId, taxSplit));
+    }
+
+    // One read of the change stamp decides whether the cached split still describes the bill and its shares
+    private <T> T cachedSplit(Long billId, Object variant, Callable<T> compute) {
+        Long stamp = billRepository.findChangeStampById(billId)
+            .orElseThrow(() -> new NotFoundException("Bill not found"));
+        Cache splits = cacheManager.getCache(CacheConfig.BILL_SPLITS);
+        try {
+            return splits.get(new SplitKey(billId, stamp, variant), compute);
+        } catch (Cache.ValueRetrievalException e) {
+            // Let a 400 or 404 from the computation through instead of the cache's wrapper
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Value
+    private static class SplitKey {
+        Long billId;
+        Long stamp;
+        Object variant;
+    }
+
+    private BillSummaryDTO computeBillSplit(Long billId, SplitCalculator.Mode taxSplit) {
+        // Item assignments and their users are batch-fetched as the loop walks them
+        Bill bill = billRepository.findDetailById(billId)
             .orElseThrow(() -> new NotFoundException("Bill not found"));
 
         BillSummaryDTO summary = new BillSummaryDTO();
@@ -206,66 +403,82 @@ public class BillService {
         summary.setTax(bill.getTax());
         summary.setTip(bill.getTip());
 
-        // Calculate total amount
-        BigDecimal itemsTotal = bill.getItems().stream()
-            .map(BillItem::getTotalPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        summary.setTotalAmount(itemsTotal.add(bill.getTax()).add(bill.getTip()));
-
-        // Calculate per-participant summaries
-        Map<Long, ParticipantSummaryDTO> participantSummaries = new HashMap<>();
+        // Everyone on the bill, then anyone assigned an item without a participant row
+        Map<Long, Integer> indexByUser = new HashMap<>();
+        List<ParticipantSummaryDTO> people = new ArrayList<>();
+        bill.getParticipants().stream()
+            .sorted(Comparator.comparing(BillParticipant::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+            .forEach(bp -> addPerson(bp.getUser(), indexByUser, people).setPaid(Boolean.TRUE.equals(bp.getPaid())));
 
-        // Process item assignments
-        for (BillItem item : bill.getItems()) {
+        List<BillItem> items = bill.getItems();
+        int assignmentCount = items.stream().mapToInt(item -> item.getAssignments().size()).sum();
+        long[] itemCents = new long[items.size()];
+        int[] assignmentItem = new int[assignmentCount];
+        int[] assignmentParticipant = new int[assignmentCount];
+        double[] assignmentPortion = new double[assignmentCount];
+        long itemsCents = 0;
+        int k = 0;
+        for (int i = 0; i < items.size(); i++) {
+            BillItem item = items.get(i);
+            itemCents[i] = SplitCalculator.toCents(item.getTotalPrice());
+            itemsCents += itemCents[i];
             for (BillItemAssignment assignment : item.getAssignments()) {
-                User user = assignment.getUser();
-                ParticipantSummaryDTO participantSummary = participantSummaries
-                    .computeIfAbsent(user.getId(), id -> {
-                        ParticipantSummaryDTO ps = new ParticipantSummaryDTO();
-                        ps.setUserId(user.getId());
-                        ps.setName(user.getName());
-                        return ps;
-                    });
+                addPerson(assignment.getUser(), indexByUser, people);
+                assignmentItem[k] = i;
+                assignmentParticipant[k] = indexByUser.get(assignment.getUser().getId());
+                assignmentPortion[k] = assignment.getPortion() != null ? assignment.getPortion() : 1.0;
+                k++;
+            }
+        }
+
+        long taxCents = SplitCalculator.toCents(bill.getTax());
+        long tipCents = SplitCalculator.toCents(bill.getTip());
+        SplitCalculator.Split split;
+        try {
+            split = splitCalculator.split(itemCents, assignmentItem, assignmentParticipant,
+                assignmentPortion, people.size(), taxCents, tipCents, taxSplit);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
 
+        k = 0;
+        for (BillItem item : items) {
+            for (BillItemAssignment assignment : item.getAssignments()) {
                 ItemSummaryDTO itemSummary = new ItemSummaryDTO();
                 itemSummary.setItemName(item.getName());
                 itemSummary.setPrice(item.getPrice());
                 itemSummary.setQuantity(item.getQuantity());
                 itemSummary.setPortion(assignment.getPortion());
-                
-                BigDecimal shareAmount = item.getTotalPrice()
-                    .multiply(BigDecimal.valueOf(assignment.getPortion()));
-                itemSummary.setShareAmount(shareAmount);
-                
-                participantSummary.getItems().add(itemSummary);
-                participantSummary.setSubtotal(
-                    participantSummary.getSubtotal().add(shareAmount));
+                itemSummary.setShareAmount(SplitCalculator.toAmount(split.getAssignmentShare()[k]));
+                people.get(assignmentParticipant[k]).getItems().add(itemSummary);
+                k++;
             }
         }
 
-        // Calculate tax and tip shares
-        int participantCount = participantSummaries.size();
-        if (participantCount > 0) {
-            BigDecimal taxShare = bill.getTax()
-                .divide(BigDecimal.valueOf(participantCount), 2, RoundingMode.HALF_UP);
-            BigDecimal tipShare = bill.getTip()
-                .divide(BigDecimal.valueOf(participantCount), 2, RoundingMode.HALF_UP);
-
-            participantSummaries.values().forEach(ps -> {
-                ps.setTaxShare(taxShare);
-                ps.setTipShare(tipShare);
-                ps.setTotal(ps.getSubtotal().add(taxShare).add(tipShare));
-                
-                // Set paid status from BillParticipant
-                bill.getParticipants().stream()
-                    .filter(bp -> bp.getUser().getId().equals(ps.getUserId()))
-                    .findFirst()
-                    .ifPresent(bp -> ps.setPaid(bp.getPaid()));
-            });
+        for (int p = 0; p < people.size(); p++) {
+            ParticipantSummaryDTO ps = people.get(p);
+            ps.setSubtotal(SplitCalculator.toAmount(split.getSubtotal()[p]));
+            ps.setTaxShare(SplitCalculator.toAmount(split.getTax()[p]));
+            ps.setTipShare(SplitCalculator.toAmount(split.getTip()[p]));
+            ps.setTotal(SplitCalculator.toAmount(split.total(p)));
         }
 
-        summary.setParticipants(new ArrayList<>(participantSummaries.values()));
+        summary.setTotalAmount(SplitCalculator.toAmount(itemsCents + taxCents + tipCents));
+        summary.setParticipants(people);
         return summary;
     }
+
+    private static ParticipantSummaryDTO addPerson(User user, Map<Long, Integer> indexByUser,
+                                                   List<ParticipantSummaryDTO> people) {
+        Integer index = indexByUser.get(user.getId());
+        if (index != null) {
+            return people.get(index);
+        }
+        ParticipantSummaryDTO ps = new ParticipantSummaryDTO();
+        ps.setUserId(user.getId());
+        ps.setName(user.getName());
+        indexByUser.put(user.getId(), people.size());
+        people.add(ps);
+        return ps;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,66 @@
+package tally.example.demo.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.exception.ConflictException;
+
+/**
+ * Re-runs a transactional write that lost an optimistic version check, a lock
+ * wait or a deadlock. Must wrap the transactional call from outside, so each
+ * attempt starts a fresh transaction with fresh reads.
+ */
+@Slf4j
+@Component
+public class ConflictRetrier {
+    static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 10;
+
+    private final Counter retries;
+
+    public ConflictRetrier(MeterRegistry meterRegistry) {
+        this.retries = Counter.builder("tally.concurrency.retries")
+            .description("Writes re-run after a concurrent update conflict")
+            .register(meterRegistry);
+    }
+
+    public void run(String operation, Runnable action) {
+        run(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T run(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    log.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw new ConflictException(operation + " conflicted with a concurrent update, please retry", e);
+                }
+                retries.increment();
+                log.debug("{} conflicted on attempt {}: {}", operation, attempt, e.getMessage());
+                backOff(attempt);
+            }
+        }
+    }
+
+    // Linear backoff with jitter so colliding writers don't retry in lockstep
+    private static void backOff(int attempt) {
+        long delay = BASE_BACKOFF_MILLIS * attempt + ThreadLocalRandom.current().nextLong(BASE_BACKOFF_MILLIS);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while retrying", e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package tally.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import lombok.Value;
+
+/**
+ * Reduces a group's debts to a short list of transfers. Works on net balances
+ * in long cents (positive = is owed). Groups with up to {@value #EXACT_LIMIT}
+ * non-zero members get the true minimum; larger ones use the greedy
+ * largest-creditor / largest-debtor match, which needs at most n - 1 transfers.
+ */
+@Component
+public class DebtSimplifier {
+    static final int EXACT_LIMIT = 16;
+
+    // Heap entries pack the amount above the member index so one long[] heap does the job
+    private static final int INDEX_BITS = 22;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    static final int MAX_MEMBERS = 1 << INDEX_BITS;
+    private static final long MAX_CENTS = Long.MAX_VALUE >>> INDEX_BITS;
+
+    @Value
+    public static class Transfer {
+        long fromUserId;
+        long toUserId;
+        long cents;
+    }
+
+    /**
+     * Sums obligations into per-member net balances. {@code members} must be
+     * sorted; obligations naming anyone outside it are ignored.
+     */
+    public long[] netBalances(long[] members, long[] debtorIds, long[] creditorIds, long[] cents) {
+        long[] net = new long[members.length];
+        for (int k = 0; k < cents.length; k++) {
+            int debtor = Arrays.binarySearch(members, debtorIds[k]);
+            int creditor = Arrays.binarySearch(members, creditorIds[k]);
+            if (debtor < 0 || creditor < 0 || debtor == creditor) {
+                continue;
+            }
+            net[debtor] -= cents[k];
+            net[creditor] += cents[k];
+        }
+        return net;
+    }
+
+    public List<Transfer> simplify(long[] members, long[] net) {
+        if (members.length != net.length) {
+            throw new IllegalArgumentException("members and balances differ in length");
+        }
+        if (members.length > MAX_MEMBERS) {
+            throw new IllegalArgumentException("Group too large: " + members.length);
+        }
+        long total = 0;
+        int open = 0;
+        for (long amount : net) {
+            if (Math.abs(amount) > MAX_CENTS) {
+                throw new IllegalArgumentException("Balance out of range: " + amount);
+            }
+            total += amount;
+            if (amount != 0) {
+                open++;
+            }
+        }
+        if (total != 0) {
+            throw new IllegalArgumentException("Balances do not sum to zero: " + total);
+        }
+
+        int[] nonZero = new int[open];
+        for (int i = 0, n = 0; i < net.length; i++) {
+            if (net[i] != 0) {
+                nonZero[n++] = i;
+            }
+        }
+        return open <= EXACT_LIMIT ? exact(members, net, nonZero) : greedy(members, net, nonZero);
+    }
+
+    public boolean isExact(int openMembers) {
+        return openMembers <= EXACT_LIMIT;
+    }
+
+    private static List<Transfer> greedy(long[] members, long[] net, int[] indices) {
+        LongMaxHeap creditors = new LongMaxHeap(indices.length);
+        LongMaxHeap debtors = new LongMaxHeap(indices.length);
+        for (int i : indices) {
+            if (net[i] > 0) {
+                creditors.push(pack(net[i], i));
+            } else {
+                debtors.push(pack(-net[i], i));
+            }
+        }
+
+        List<Transfer> transfers = new ArrayList<>(Math.max(0, indices.length - 1));
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            long credit = creditors.pop();
+            long debt = debtors.pop();
+            long owed = credit >>> INDEX_BITS;
+            long owes = debt >>> INDEX_BITS;
+            int creditor = (int) (credit & INDEX_MASK);
+            int debtor = (int) (debt & INDEX_MASK);
+
+            long paid = Math.min(owed, owes);
+            transfers.add(new Transfer(members[debtor], members[creditor], paid));
+            if (owed > paid) {
+                creditors.push(pack(owed - paid, creditor));
+            }
+            if (owes > paid) {
+                debtors.push(pack(owes - paid, debtor));
+            }
+        }
+        return transfers;
+    }
+
+    /*
+     * The minimum number of transfers is (open members) - (most disjoint
+     * zero-sum groups they can be split into), since each group settles in
+     * size - 1 transfers. best[mask] is that group count for the members in
+     * mask; walking it back gives an order in which the groups are contiguous.
+     */
+    private static List<Transfer> exact(long[] members, long[] net, int[] indices) {
+        int n = indices.length;
+        int full = (1 << n) - 1;
+        long[] sum = new long[full + 1];
+        int[] best = new int[full + 1];
+        for (int mask = 1; mask <= full; mask++) {
+            int low = Integer.numberOfTrailingZeros(mask);
+            sum[mask] = sum[mask & (mask - 1)] + net[indices[low]];
+            int most = 0;
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                most = Math.max(most, best[mask & ~Integer.lowestOneBit(rest)]);
+            }
+            best[mask] = most + (sum[mask] == 0 ? 1 : 0);
+        }
+
+        int[] order = new int[n];
+        int mask = full;
+        for (int k = n - 1; k >= 0; k--) {
+            int target = best[mask] - (sum[mask] == 0 ? 1 : 0);
+            int pick = Integer.numberOfTrailingZeros(mask);
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int bit = Integer.numberOfTrailingZeros(rest);
+                if (best[mask & ~(1 << bit)] == target) {
+                    pick = bit;
+                    break;
+                }
+            }
+            order[k] = indices[pick];
+            mask &= ~(1 << pick);
+        }
+
+        List<Transfer> transfers = new ArrayList<>(n);
+        int start = 0;
+        long running = 0;
+        for (int k = 0; k < n; k++) {
+            running += net[order[k]];
+            if (running == 0) {
+                transfers.addAll(greedy(members, net, Arrays.copyOfRange(order, start, k + 1)));
+                start = k + 1;
+            }
+        }
+        return transfers;
+    }
+
+    private static long pack(long cents, int index) {
+        return (cents << INDEX_BITS) | index;
+    }
+
+    private static final class LongMaxHeap {
+        private final long[] heap;
+        private int size;
+
+        LongMaxHeap(int capacity) {
+            heap = new long[Math.max(1, capacity)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long value) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] >= value) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && heap[child + 1] > heap[child]) {
+                    child++;
+                }
+                if (last >= heap[child]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package tally.example.demo.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.dto.FriendSuggestionDTO;
+import tally.example.demo.model.User;
+import tally.example.demo.repository.UserRepository;
+
+/**
+ * Friend edges kept as sorted primitive id arrays per user, loaded from
+ * user_friends on demand. Writes go straight to the table as single rows and
+ * patch the cached array after commit, so neither side ever loads or rewrites
+ * a whole User.friends collection.
+ *
+ * Edges are directed, as they always were: adding B as A's friend doesn't make
+ * A one of B's friends.
+ */
+@Slf4j
+@Service
+public class FriendGraphService {
+    // Weighed in ids, so a few users with huge friend lists can't crowd out everyone else unnoticed
+    private static final long MAX_CACHED_IDS = 5_000_000;
+    private static final Duration TTL = Duration.ofMinutes(30);
+    private static final int LOAD_BATCH_SIZE = 1000;
+    public static final int MAX_SUGGESTIONS = 100;
+
+    private final UserRepository userRepository;
+    private final LoadingCache<Long, long[]> adjacency;
+
+    public FriendGraphService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+        this.adjacency = Caffeine.newBuilder()
+            .maximumWeight(MAX_CACHED_IDS)
+            .weigher((Long userId, long[] ids) -> ids.length + 1)
+            // The TTL only bounds how long a write made by another instance can go unseen
+            .expireAfterWrite(TTL)
+            .recordStats()
+            .build(new CacheLoader<>() {
+                @Override
+                public long[] load(Long userId) {
+                    return loadAll(Set.of(userId)).get(userId);
+                }
+
+                @Override
+                public Map<Long, long[]> loadAll(Set<? extends Long> userIds) {
+                    return loadEdges(userIds);
+                }
+            });
+    }
+
+    /** Sorted ids of the user's friends. The array is shared and must not be modified. */
+    public long[] friendIds(long userId) {
+        return adjacency.get(userId);
+    }
+
+    /** @return false if the edge already existed */
+    @Transactional
+    public boolean addFriend(long userId, long friendId) {
+        if (userRepository.insertFriendEdge(userId, friendId) == 0) {
+            return false;
+        }
+        AfterCommit.run(() -> adjacency.asMap().computeIfPresent(userId, (id, ids) -> SortedIds.with(ids, friendId)));
+        return true;
+    }
+
+    /** @return false if there was no such edge */
+    @Transactional
+    public boolean removeFriend(long userId, long friendId) {
+        if (userRepository.deleteFriendEdge(userId, friendId) == 0) {
+            return false;
+        }
+        AfterCommit.run(() -> adjacency.asMap().computeIfPresent(userId, (id, ids) -> SortedIds.without(ids, friendId)));
+        return true;
+    }
+
+    /**
+     * Friends of the user's friends, ranked by how many of the user's friends
+     * they are connected to, ties broken by id. Neither the user nor their
+     * current friends are suggested, and neither are deactivated accounts.
+     */
+    @Transactional(readOnly = true)
+    public List<FriendSuggestionDTO> suggestFriends(long userId, int limit) {
+        long[] friends = friendIds(userId);
+        if (friends.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        Map<Long, long[]> second = adjacency.getAll(Arrays.stream(friends).boxed().collect(Collectors.toList()));
+
+        MutualCounter counter = new MutualCounter(friends.length * 8);
+        for (long friend : friends) {
+            for (long candidate : second.getOrDefault(friend, SortedIds.NONE)) {
+                if (candidate != userId && !SortedIds.contains(friends, candidate)) {
+                    counter.increment(candidate);
+                }
+            }
+        }
+
+        // Ask for a few more than needed so deactivated candidates can be dropped without a second round
+        List<long[]> top = counter.top(Math.min(limit, MAX_SUGGESTIONS) * 2);
+        Map<Long, User> users = userRepository.findByIdIn(top.stream().map(c -> c[0]).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<FriendSuggestionDTO> suggestions = new ArrayList<>(Math.min(limit, top.size()));
+        for (long[] candidate : top) {
+            User user = users.get(candidate[0]);
+            if (user == null || !Boolean.TRUE.equals(user.getActive())) {
+                continue;
+            }
+            suggestions.add(new FriendSuggestionDTO(user.getId(), user.getName(), user.getPhotoUrl(), (int) candidate[1]));
+            if (suggestions.size() == limit) {
+                break;
+            }
+        }
+        return suggestions;
+    }
+
+    private Map<Long, long[]> loadEdges(Set<? extends Long> userIds) {
+        Map<Long, long[]> loaded = new HashMap<>();
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + LOAD_BATCH_SIZE, ids.size()));
+            Map<Long, SortedIds.Builder> edges = new HashMap<>();
+            for (Object[] row : userRepository.findFriendEdges(batch)) {
+                edges.computeIfAbsent(((Number) row[0]).longValue(), id -> new SortedIds.Builder())
+                    .add(((Number) row[1]).longValue());
+            }
+            for (Long id : batch) {
+                SortedIds.Builder friends = edges.get(id);
+                // Users without friends are cached too, otherwise they'd be queried on every lookup
+                loaded.put(id, friends != null ? friends.build() : SortedIds.NONE);
+            }
+        }
+        log.debug("Loaded friend lists for {} users", loaded.size());
+        return loaded;
+    }
+
+    /** Open-addressing id -> count map; a boxed HashMap costs an object per candidate. */
+    private static final class MutualCounter {
+        // Ids are identity values, never zero
+        private static final long EMPTY = 0L;
+
+        private long[] keys;
+        private int[] counts;
+        private int size;
+
+        MutualCounter(int expected) {
+            int capacity = Integer.highestOneBit(Math.min(Math.max(16, expected), 1 << 20)) << 2;
+            keys = new long[capacity];
+            counts = new int[capacity];
+        }
+
+        void increment(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    counts[slot] = 1;
+                    grow();
+                    return;
+                }
+            }
+            counts[slot]++;
+        }
+
+        /** Up to k [id, count] pairs, highest count first, then lowest id. */
+        List<long[]> top(int k) {
+            Comparator<long[]> best = Comparator.<long[]>comparingLong(c -> c[1]).reversed()
+                .thenComparingLong(c -> c[0]);
+            // Min-heap of the k best so far: its head is the weakest kept candidate
+            PriorityQueue<long[]> heap = new PriorityQueue<>(k + 1, best.reversed());
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] == EMPTY) {
+                    continue;
+                }
+                long[] candidate = {keys[slot], counts[slot]};
+                if (heap.size() < k) {
+                    heap.add(candidate);
+                } else if (best.compare(candidate, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(candidate);
+                }
+            }
+            List<long[]> top = new ArrayList<>(heap);
+            top.sort(best);
+            return top;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == EMPTY) {
+                    continue;
+                }
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
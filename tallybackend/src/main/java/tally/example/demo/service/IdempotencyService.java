@@ -0,0 +1,132 @@
+package tally.example.demo.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.exception.InvalidIdempotencyKeyException;
+
+/**
+ * Answers client retries from the first attempt's response. Keys are scoped
+ * per endpoint and user; a retry that arrives while the first attempt is still
+ * running waits for it instead of writing a second time. Only successful
+ * responses are kept, so a failed attempt can be retried for real.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long MAX_KEYS = 100_000;
+    private static final Duration TTL = Duration.ofHours(24);
+
+    private final Cache<String, Attempt> attempts = Caffeine.newBuilder()
+        .maximumSize(MAX_KEYS)
+        .expireAfterWrite(TTL)
+        .build();
+    private final Counter replays;
+    private final ObjectWriter canonicalWriter;
+
+    public IdempotencyService(MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.canonicalWriter = objectMapper.writer(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.replays = Counter.builder("tally.idempotency.replays")
+            .description("Requests answered from a stored idempotent response")
+            .register(meterRegistry);
+    }
+
+    @Value
+    private static class Attempt {
+        // SHA-256 of what the key was first used for; a different request under the same key is rejected
+        byte[] fingerprint;
+        CompletableFuture<ResponseEntity<?>> response;
+    }
+
+    /**
+     * Runs the action once per key. Without a key the action simply runs.
+     *
+     * @param fingerprint the request the key stands for, compared on reuse
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String scope, Long userId, String key, Object fingerprint,
+            Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(KEY_HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String id = scope + ':' + userId + ':' + key;
+        Attempt mine = new Attempt(digest(fingerprint), new CompletableFuture<>());
+        Attempt existing = attempts.asMap().putIfAbsent(id, mine);
+        if (existing != null) {
+            if (!MessageDigest.isEqual(existing.getFingerprint(), mine.getFingerprint())) {
+                throw new InvalidIdempotencyKeyException(KEY_HEADER + " was already used for a different request");
+            }
+            return (ResponseEntity<T>) replay(id, existing);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            attempts.asMap().remove(id, mine);
+            mine.getResponse().completeExceptionally(e);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            attempts.asMap().remove(id, mine);
+        }
+        mine.getResponse().complete(response);
+        return response;
+    }
+
+    // The request as JSON rather than its hashCode, so only an equal body can share a key
+    private byte[] digest(Object fingerprint) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(canonicalWriter.writeValueAsBytes(fingerprint));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request cannot be fingerprinted", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private ResponseEntity<?> replay(String id, Attempt attempt) {
+        ResponseEntity<?> stored;
+        try {
+            stored = attempt.getResponse().join();
+        } catch (CompletionException e) {
+            // Retried while the first attempt was running and that attempt failed
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        replays.increment();
+        log.debug("Replaying stored response for {}", id);
+        return ResponseEntity.status(stored.getStatusCode())
+            .headers(stored.getHeaders())
+            .header(REPLAYED_HEADER, "true")
+            .body(stored.getBody());
+    }
+}
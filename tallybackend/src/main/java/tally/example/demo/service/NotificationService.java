@@ -0,0 +1,188 @@
+package tally.example.demo.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Server-sent event streams of bill changes, one or more per user.
+ *
+ * Publishing never blocks the writer: each stream has a small bounded buffer
+ * that a shared sender pool drains. A stream that falls a full buffer behind
+ * is closed rather than left to grow; the client's EventSource reconnects and
+ * refetches, which is cheaper than holding an unbounded backlog per socket.
+ * Idle streams hold no thread, only the connection and the buffer.
+ */
+@Slf4j
+@Service
+public class NotificationService {
+    public static final String BILL_EVENT = "bill";
+    private static final int BUFFER_SIZE = 64;
+    private static final int MAX_STREAMS_PER_USER = 5;
+    private static final int SENDER_THREADS = 4;
+    // The client reconnects when a stream times out; this only stops abandoned sockets living forever
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(30);
+    // Keeps proxies from cutting idle streams and finds dead ones
+    private static final long HEARTBEAT_MILLIS = 25_000;
+
+    private final ConcurrentHashMap<Long, ConcurrentLinkedDeque<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger streamCount = new AtomicInteger();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final ExecutorService sender;
+    private final Counter dropped;
+
+    public NotificationService(MeterRegistry meterRegistry) {
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(SENDER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("tally.notifications.streams", streamCount, AtomicInteger::get)
+            .description("Open notification streams")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("tally.notifications.dropped")
+            .description("Streams closed because the client fell a full buffer behind")
+            .register(meterRegistry);
+    }
+
+    private final class Subscriber {
+        final Long userId;
+        final SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        final BlockingQueue<Set<DataWithMediaType>> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(Long userId) {
+            this.userId = userId;
+        }
+
+        void offer(Set<DataWithMediaType> event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                dropped.increment();
+                log.debug("Closing notification stream of user {}: buffer full", userId);
+                close();
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<DataWithMediaType> event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        // The client went away; the emitter's own callbacks may also fire
+                        close();
+                        return;
+                    }
+                }
+                draining.set(false);
+                // Something may have been offered after the last poll but before the flag cleared
+            } while (!buffer.isEmpty() && !closed.get() && draining.compareAndSet(false, true));
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            buffer.clear();
+            streamCount.decrementAndGet();
+            subscribers.computeIfPresent(userId, (id, streams) -> {
+                streams.remove(this);
+                return streams.isEmpty() ? null : streams;
+            });
+        }
+    }
+
+    /** Opens a stream for the user; beyond the per-user limit the oldest stream is closed. */
+    public SseEmitter subscribe(Long userId) {
+        Subscriber subscriber = new Subscriber(userId);
+        subscriber.emitter.onCompletion(subscriber::close);
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(error -> subscriber.close());
+        streamCount.incrementAndGet();
+
+        ConcurrentLinkedDeque<Subscriber> streams = subscribers.compute(userId, (id, existing) -> {
+            ConcurrentLinkedDeque<Subscriber> deque = existing != null ? existing : new ConcurrentLinkedDeque<>();
+            deque.addLast(subscriber);
+            return deque;
+        });
+        while (streams.size() > MAX_STREAMS_PER_USER) {
+            Subscriber oldest = streams.peekFirst();
+            if (oldest == null || oldest == subscriber) {
+                break;
+            }
+            oldest.close();
+            oldest.emitter.complete();
+        }
+
+        // Sent right away so the client knows the stream is live before any change happens
+        subscriber.offer(SseEmitter.event().comment("connected").build());
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBillChanged(BillChangedEvent event) {
+        // Built once and shared: a builder appends to itself on every build, so it can't go to each stream
+        Set<DataWithMediaType> message = SseEmitter.event()
+            .id(Long.toString(eventIds.incrementAndGet()))
+            .name(BILL_EVENT)
+            .data(event.getPayload(), MediaType.APPLICATION_JSON)
+            .build();
+        for (Long userId : event.getRecipientIds()) {
+            ConcurrentLinkedDeque<Subscriber> streams = subscribers.get(userId);
+            if (streams != null) {
+                streams.forEach(subscriber -> subscriber.offer(message));
+            }
+        }
+    }
+
+    @Scheduled(fixedRate = HEARTBEAT_MILLIS)
+    public void heartbeat() {
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        for (ConcurrentLinkedDeque<Subscriber> streams : subscribers.values()) {
+            for (Subscriber subscriber : streams) {
+                // A ping doesn't need to queue behind real events
+                if (subscriber.buffer.isEmpty()) {
+                    subscriber.offer(ping);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+}
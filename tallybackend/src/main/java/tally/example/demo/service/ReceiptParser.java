@@ -0,0 +1,321 @@
+package tally.example.demo.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import tally.example.demo.dto.request.CreateBillRequest.BillItemRequest;
+import tally.example.demo.dto.response.ReceiptScanResponse;
+
+/**
+ * Turns recognized receipt text into bill items plus tax, tip and totals.
+ *
+ * The text is walked once, character by character. Each line is classified by
+ * its first keyword (tax, tip, subtotal, total or a payment line) and its last
+ * price token ({@code 12.50}, {@code $ 3,99}, {@code 1,234.56}); anything else
+ * with a price is an item. A minus sign directly before or after the price,
+ * or a discount keyword, makes the amount negative. Prices are accumulated as long
+ * cents, so the only allocations are the item names and the result objects.
+ */
+@Component
+public class ReceiptParser {
+    private static final int MAX_PRICE_DIGITS = 9;
+    private static final int MAX_QUANTITY = 99;
+
+    private enum LineKind { ITEM, TAX, TIP, SUBTOTAL, TOTAL, PAYMENT }
+
+    public ReceiptScanResponse parse(CharSequence text) {
+        Result result = new Result();
+        Line line = new Line();
+        StringBuilder name = new StringBuilder(32);
+
+        int length = text.length();
+        int i = 0;
+        line.reset(0);
+        while (i <= length) {
+            char c = i < length ? text.charAt(i) : '\n';
+
+            if (c == '\n' || c == '\r') {
+                result.accept(text, line, name);
+                line.reset(++i);
+            } else if (Character.isLetter(c)) {
+                int start = i;
+                while (i < length && Character.isLetter(text.charAt(i))) {
+                    i++;
+                }
+                line.word(text, start, i);
+            } else if (c >= '0' && c <= '9') {
+                i = scanNumber(text, i, line);
+            } else {
+                if (c == '-') {
+                    line.minusAt = i;
+                }
+                if (!Character.isWhitespace(c)) {
+                    line.tokens++;
+                }
+                i++;
+            }
+        }
+        return result.toResponse(text);
+    }
+
+    // Reads a digit run starting at i; records it as a price or a leading quantity
+    private static int scanNumber(CharSequence text, int i, Line line) {
+        int length = text.length();
+        int start = i;
+        long value = 0;
+        int digits = 0;
+        while (i < length && isDigit(text.charAt(i))) {
+            if (digits < MAX_PRICE_DIGITS) {
+                value = value * 10 + (text.charAt(i) - '0');
+            }
+            digits++;
+            i++;
+        }
+        int leadingDigits = digits;
+
+        // "1,234.56": a comma followed by three digits and then another separator groups thousands
+        while (i + 4 < length && text.charAt(i) == ','
+                && isDigit(text.charAt(i + 1)) && isDigit(text.charAt(i + 2)) && isDigit(text.charAt(i + 3))
+                && (text.charAt(i + 4) == '.' || text.charAt(i + 4) == ',')) {
+            for (int k = i + 1; k <= i + 3; k++) {
+                if (digits < MAX_PRICE_DIGITS) {
+                    value = value * 10 + (text.charAt(k) - '0');
+                }
+                digits++;
+            }
+            i += 4;
+        }
+
+        if (i + 2 < length && (text.charAt(i) == '.' || text.charAt(i) == ',')
+                && isDigit(text.charAt(i + 1)) && isDigit(text.charAt(i + 2))
+                && (i + 3 >= length || !isDigit(text.charAt(i + 3)))
+                && digits <= MAX_PRICE_DIGITS - 2) {
+            long cents = value * 100 + (text.charAt(i + 1) - '0') * 10 + (text.charAt(i + 2) - '0');
+            i += 3;
+            boolean signed = isSignedBy(text, line.minusAt, start);
+            boolean negative = signed;
+            // Some receipts print discounts with a trailing minus: "2.00-"
+            if (i < length && text.charAt(i) == '-') {
+                negative = true;
+                i++;
+            }
+            // A leading minus belongs to the price, not the item name
+            line.price(signed ? line.minusAt : start, negative ? -cents : cents);
+            return i;
+        }
+
+        if (line.tokens == 0 && value > 0 && value <= MAX_QUANTITY && leadingDigits <= 2 && digits == leadingDigits
+                && i < length && Character.isWhitespace(text.charAt(i))) {
+            line.quantity = (int) value;
+            line.quantityEnd = i;
+        }
+        line.tokens++;
+        return i;
+    }
+
+    // True when the minus at minusAt touches the price at start, at most a currency sign between them;
+    // a spaced dash ("COFFEE - 4.50") only separates the name from the price
+    private static boolean isSignedBy(CharSequence text, int minusAt, int start) {
+        if (minusAt < 0 || minusAt >= start) {
+            return false;
+        }
+        for (int k = minusAt + 1; k < start; k++) {
+            if (text.charAt(k) != '$') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '&' || c == '-' || c == '\'' || c == '/' || c == '%' || c == '+';
+    }
+
+    private static final class Line {
+        int start;
+        int tokens;
+        LineKind kind;
+        boolean afterSub;
+        int nameEnd;
+        int priceStart;
+        long priceCents;
+        int quantity;
+        int quantityEnd;
+        int minusAt;
+        boolean discount;
+
+        void reset(int start) {
+            this.start = start;
+            tokens = 0;
+            kind = null;
+            afterSub = false;
+            nameEnd = -1;
+            priceStart = -1;
+            priceCents = 0;
+            quantity = 1;
+            quantityEnd = -1;
+            minusAt = -1;
+            discount = false;
+        }
+
+        // The last price on a line is its amount; the name stops at the first one
+        void price(int start, long cents) {
+            if (nameEnd < 0) {
+                nameEnd = start;
+            }
+            priceStart = start;
+            priceCents = cents;
+            tokens++;
+        }
+
+        void word(CharSequence text, int from, int to) {
+            tokens++;
+            if (matches(text, from, to, "discount") || matches(text, from, to, "coupon")
+                    || matches(text, from, to, "savings") || matches(text, from, to, "promo")) {
+                discount = true;
+            }
+            if (kind != null) {
+                return;
+            }
+            if (afterSub && matches(text, from, to, "total")) {
+                kind = LineKind.SUBTOTAL;
+            } else if (matches(text, from, to, "subtotal")) {
+                kind = LineKind.SUBTOTAL;
+            } else if (matches(text, from, to, "total")) {
+                kind = LineKind.TOTAL;
+            } else if (matches(text, from, to, "tax") || matches(text, from, to, "hst")
+                    || matches(text, from, to, "gst") || matches(text, from, to, "vat")) {
+                kind = LineKind.TAX;
+            } else if (matches(text, from, to, "tip") || matches(text, from, to, "gratuity")) {
+                kind = LineKind.TIP;
+            } else if (matches(text, from, to, "change") || matches(text, from, to, "cash")
+                    || matches(text, from, to, "visa") || matches(text, from, to, "mastercard")
+                    || matches(text, from, to, "amex") || matches(text, from, to, "balance")
+                    || matches(text, from, to, "tender") || matches(text, from, to, "due")) {
+                kind = LineKind.PAYMENT;
+            }
+            afterSub = matches(text, from, to, "sub");
+        }
+
+        private static boolean matches(CharSequence text, int from, int to, String keyword) {
+            if (to - from != keyword.length()) {
+                return false;
+            }
+            for (int k = 0; k < keyword.length(); k++) {
+                if (Character.toLowerCase(text.charAt(from + k)) != keyword.charAt(k)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Result {
+        final List<BillItemRequest> items = new ArrayList<>();
+        final Map<String, BillItemRequest> itemsByKey = new HashMap<>();
+        long itemsCents;
+        long taxCents;
+        long tipCents;
+        long subtotalCents = -1;
+        long totalCents = -1;
+
+        void accept(CharSequence text, Line line, StringBuilder name) {
+            if (line.priceStart < 0 || line.priceCents == 0) {
+                return;
+            }
+            // A discount line reduces the bill whether or not it was printed with a minus
+            if (line.discount && line.kind == null && line.priceCents > 0) {
+                line.priceCents = -line.priceCents;
+            }
+            switch (line.kind == null ? LineKind.ITEM : line.kind) {
+                case TAX -> taxCents += line.priceCents;
+                case TIP -> tipCents += line.priceCents;
+                case SUBTOTAL -> subtotalCents = line.priceCents;
+                case TOTAL -> totalCents = line.priceCents;
+                case PAYMENT -> { }
+                case ITEM -> addItem(text, line, name);
+            }
+        }
+
+        private void addItem(CharSequence text, Line line, StringBuilder name) {
+            int from = line.quantityEnd >= 0 ? line.quantityEnd : line.start;
+            buildName(text, from, line.nameEnd, name);
+            if (name.length() == 0) {
+                return;
+            }
+
+            // Receipts print the line total; fall back to one unit when it doesn't divide evenly
+            int quantity = line.quantity;
+            long unitCents = line.priceCents;
+            if (quantity > 1 && unitCents % quantity == 0) {
+                unitCents /= quantity;
+            } else {
+                quantity = 1;
+            }
+
+            String itemName = name.toString();
+            BillItemRequest existing = itemsByKey.get(itemName + '|' + unitCents);
+            if (existing != null) {
+                existing.setQuantity(existing.getQuantity() + quantity);
+            } else {
+                BillItemRequest item = new BillItemRequest();
+                item.setName(itemName);
+                item.setPrice(BigDecimal.valueOf(unitCents, 2));
+                item.setQuantity(quantity);
+                items.add(item);
+                itemsByKey.put(itemName + '|' + unitCents, item);
+            }
+            itemsCents += unitCents * quantity;
+        }
+
+        // Copies [from, to) upper-cased with whitespace collapsed and a trailing dash or tax flag ("S", "T") dropped
+        private static void buildName(CharSequence text, int from, int to, StringBuilder name) {
+            name.setLength(0);
+            boolean pendingSpace = false;
+            for (int k = from; k < to; k++) {
+                char c = text.charAt(k);
+                if (isNameChar(c)) {
+                    if (pendingSpace && name.length() > 0) {
+                        name.append(' ');
+                    }
+                    name.append(Character.toUpperCase(c));
+                    pendingSpace = false;
+                } else {
+                    pendingSpace = true;
+                }
+            }
+            int n = name.length();
+            // A dash standing alone before the price separates it from the name
+            if (n > 2 && name.charAt(n - 2) == ' ' && name.charAt(n - 1) == '-') {
+                name.setLength(n -= 2);
+            }
+            if (n > 2 && name.charAt(n - 2) == ' ' && isTaxFlag(name.charAt(n - 1))) {
+                name.setLength(n - 2);
+            }
+        }
+
+        private static boolean isTaxFlag(char c) {
+            return c == 'S' || c == 'T' || c == 'F' || c == 'N' || c == 'X';
+        }
+
+        ReceiptScanResponse toResponse(CharSequence text) {
+            ReceiptScanResponse response = new ReceiptScanResponse();
+            response.setText(text.toString());
+            response.setItems(items);
+            response.setTax(BigDecimal.valueOf(taxCents, 2));
+            response.setTip(BigDecimal.valueOf(tipCents, 2));
+            response.setSubtotal(BigDecimal.valueOf(subtotalCents >= 0 ? subtotalCents : itemsCents, 2));
+            response.setTotal(BigDecimal.valueOf(totalCents >= 0 ? totalCents : itemsCents + taxCents + tipCents, 2));
+            return response;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package tally.example.demo.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.config.TesseractProperties;
+import tally.example.demo.dto.response.ReceiptScanJobResponse;
+import tally.example.demo.dto.response.ReceiptScanJobResponse.Status;
+import tally.example.demo.dto.response.ReceiptScanResponse;
+
+/**
+ * Runs receipt scans as pollable jobs. The job id is the SHA-256 of the image
+ * bytes, so the same photo uploaded by several people shares one in-flight or
+ * cached recognition.
+ */
+@Slf4j
+@Service
+public class ReceiptScanJobService {
+    // Failed jobs drop out of the result cache; keep the reason around for pollers
+    private static final Duration FAILURE_TTL = Duration.ofMinutes(5);
+
+    private final ReceiptScanService receiptScanService;
+    private final AsyncCache<String, ReceiptScanResponse> results;
+    private final Cache<String, Failure> failures;
+
+    public ReceiptScanJobService(ReceiptScanService receiptScanService, TesseractProperties properties) {
+        this.receiptScanService = receiptScanService;
+        this.results = Caffeine.newBuilder()
+            .maximumSize(properties.getCache().getMaxSize())
+            .expireAfterWrite(properties.getCache().getTtl())
+            .recordStats()
+            .buildAsync();
+        this.failures = Caffeine.newBuilder()
+            .maximumSize(properties.getCache().getMaxSize())
+            .expireAfterWrite(FAILURE_TTL)
+            .build();
+    }
+
+    /**
+     * Starts a scan for the image, or joins the existing job for identical bytes.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the OCR pipeline is saturated
+     */
+    public ReceiptScanJobResponse submit(byte[] imageBytes) {
+        String jobId = hash(imageBytes);
+        failures.invalidate(jobId);
+
+        CompletableFuture<ReceiptScanResponse> job = results.get(jobId, (key, executor) ->
+            receiptScanService.scan(imageBytes).whenComplete((result, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                    if (cause instanceof RejectedExecutionException) {
+                        log.warn("Receipt scan {} rejected, recognition workers are saturated", key);
+                        failures.put(key, new Failure(Status.BUSY, "Receipt scanner is busy, please retry shortly"));
+                    } else {
+                        log.warn("Receipt scan {} failed: {}", key, cause.getMessage());
+                        failures.put(key, new Failure(Status.FAILED, String.valueOf(cause.getMessage())));
+                    }
+                }
+            }));
+        return toResponse(jobId, job);
+    }
+
+    public Optional<ReceiptScanJobResponse> getJob(String jobId) {
+        // Read through the map view so polling doesn't count as cache hits
+        CompletableFuture<ReceiptScanResponse> job = results.asMap().get(jobId);
+        if (job != null) {
+            return Optional.of(toResponse(jobId, job));
+        }
+        Failure failure = failures.getIfPresent(jobId);
+        if (failure == null) {
+            return Optional.empty();
+        }
+        ReceiptScanJobResponse response = new ReceiptScanJobResponse();
+        response.setJobId(jobId);
+        response.setStatus(failure.getStatus());
+        response.setError(failure.getError());
+        return Optional.of(response);
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = results.synchronous().stats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", results.synchronous().estimatedSize());
+        body.put("hitCount", stats.hitCount());
+        body.put("missCount", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictionCount", stats.evictionCount());
+        return body;
+    }
+
+    private ReceiptScanJobResponse toResponse(String jobId, CompletableFuture<ReceiptScanResponse> job) {
+        ReceiptScanJobResponse response = new ReceiptScanJobResponse();
+        response.setJobId(jobId);
+        if (!job.isDone()) {
+            response.setStatus(Status.PENDING);
+        } else if (job.isCompletedExceptionally()) {
+            Failure failure = failures.getIfPresent(jobId);
+            response.setStatus(failure != null ? failure.getStatus() : Status.FAILED);
+            response.setError(failure != null ? failure.getError() : null);
+        } else {
+            response.setStatus(Status.DONE);
+            response.setResult(job.join());
+        }
+        return response;
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Value
+    private static class Failure {
+        Status status;
+        String error;
+    }
+}
@@ -0,0 +1,137 @@
+package tally.example.demo.service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.recognition.software.jdeskew.ImageDeskew;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.sourceforge.tess4j.ITesseract;
+import net.sourceforge.tess4j.Tesseract;
+import net.sourceforge.tess4j.TesseractException;
+import net.sourceforge.tess4j.util.ImageHelper;
+import tally.example.demo.config.TesseractProperties;
+import tally.example.demo.dto.response.ReceiptScanResponse;
+
+/**
+ * Two-stage OCR pipeline: images are decoded, grayscaled and deskewed on the
+ * preprocess pool, then handed to a fixed set of recognition workers that each
+ * keep their own Tesseract instance. Both pools have bounded queues and reject
+ * work when full instead of piling requests up.
+ */
+@Slf4j
+@Service
+public class ReceiptScanService {
+    // Skew below this many degrees isn't worth the cost of a rotation
+    private static final double MIN_DESKEW_ANGLE = 0.05;
+
+    private final TesseractProperties properties;
+    private final ReceiptParser receiptParser;
+    private final ThreadPoolExecutor preprocessExecutor;
+    private final ThreadPoolExecutor ocrExecutor;
+    private final ThreadLocal<ITesseract> workerTesseract;
+
+    @Autowired
+    public ReceiptScanService(TesseractProperties properties, ReceiptParser receiptParser) {
+        this(properties, receiptParser, null);
+    }
+
+    // Tests hand in a stub engine instead of loading native Tesseract
+    ReceiptScanService(TesseractProperties properties, ReceiptParser receiptParser, Supplier<ITesseract> engines) {
+        this.properties = properties;
+        this.receiptParser = receiptParser;
+        this.preprocessExecutor = boundedPool("ocr-preprocess-",
+            properties.getPreprocessWorkers(), properties.getQueueCapacity());
+        this.ocrExecutor = boundedPool("ocr-worker-",
+            properties.getWorkers(), properties.getQueueCapacity());
+        this.workerTesseract = ThreadLocal.withInitial(engines != null ? engines : this::newTesseract);
+    }
+
+    /**
+     * Queues a receipt image for recognition.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the pipeline is saturated
+     */
+    public CompletableFuture<ReceiptScanResponse> scan(byte[] imageBytes) {
+        return CompletableFuture
+            .supplyAsync(() -> preprocess(imageBytes), preprocessExecutor)
+            .thenApplyAsync(this::recognize, ocrExecutor);
+    }
+
+    private BufferedImage preprocess(byte[] imageBytes) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read receipt image", e);
+        }
+        if (image == null) {
+            throw new IllegalArgumentException("Unsupported receipt image format");
+        }
+
+        BufferedImage gray = ImageHelper.convertImageToGrayscale(image);
+        double skew = new ImageDeskew(gray).getSkewAngle();
+        if (Math.abs(skew) > MIN_DESKEW_ANGLE) {
+            gray = ImageHelper.rotateImage(gray, -skew);
+        }
+        return gray;
+    }
+
+    private ReceiptScanResponse recognize(BufferedImage image) {
+        long start = System.nanoTime();
+        try {
+            ReceiptScanResponse response = receiptParser.parse(workerTesseract.get().doOCR(image));
+            log.debug("Recognized receipt in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return response;
+        } catch (TesseractException e) {
+            throw new CompletionException("Receipt recognition failed", e);
+        }
+    }
+
+    private ITesseract newTesseract() {
+        Tesseract tesseract = new Tesseract();
+        if (properties.getDataPath() != null) {
+            tesseract.setDatapath(properties.getDataPath());
+        }
+        if (properties.getLanguage() != null) {
+            tesseract.setLanguage(properties.getLanguage());
+        }
+        log.info("Initialized Tesseract for {}", Thread.currentThread().getName());
+        return tesseract;
+    }
+
+    // Platform threads even in virtual-thread mode: Tesseract runs in native code, which would pin a
+    // virtual thread's carrier, and each worker keeps its own engine in a ThreadLocal
+    private static ThreadPoolExecutor boundedPool(String namePrefix, int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        preprocessExecutor.shutdownNow();
+        ocrExecutor.shutdownNow();
+    }
+}
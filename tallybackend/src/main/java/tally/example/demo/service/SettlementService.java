@@ -0,0 +1,90 @@
+package tally.example.demo.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.dto.SettlementDTO;
+import tally.example.demo.dto.SettlementPlanDTO;
+import tally.example.demo.exception.NotFoundException;
+import tally.example.demo.model.User;
+import tally.example.demo.model.UserBalance;
+import tally.example.demo.repository.UserBalanceRepository;
+import tally.example.demo.repository.UserRepository;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SettlementService {
+    private final UserRepository userRepository;
+    private final UserBalanceRepository balanceRepository;
+    private final DebtSimplifier debtSimplifier;
+    private final FriendGraphService friendGraphService;
+
+    // Settles the user together with their friends; debts to anyone outside that group are left out
+    @Transactional(readOnly = true)
+    public SettlementPlanDTO planForFriendGroup(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User not found");
+        }
+        long[] friendIds = friendGraphService.friendIds(userId);
+        long[] members = Arrays.copyOf(friendIds, friendIds.length + 1);
+        members[friendIds.length] = userId;
+        return plan(members);
+    }
+
+    @Transactional(readOnly = true)
+    public SettlementPlanDTO plan(long[] memberIds) {
+        long[] members = Arrays.stream(memberIds).distinct().sorted().toArray();
+        List<Long> memberList = Arrays.stream(members).boxed().collect(Collectors.toList());
+
+        // The ledger already holds unpaid shares netted per pair, so this is one row per pair, not per share
+        List<UserBalance> open = balanceRepository.findOpenAmong(memberList);
+        long[] debtors = new long[open.size()];
+        long[] creditors = new long[open.size()];
+        long[] cents = new long[open.size()];
+        for (int k = 0; k < open.size(); k++) {
+            UserBalance balance = open.get(k);
+            long amount = SplitCalculator.toCents(balance.getAmount());
+            // Positive rows mean userId owes counterpartyId
+            boolean lowOwes = amount > 0;
+            debtors[k] = lowOwes ? balance.getUserId() : balance.getCounterpartyId();
+            creditors[k] = lowOwes ? balance.getCounterpartyId() : balance.getUserId();
+            cents[k] = Math.abs(amount);
+        }
+
+        long[] net = debtSimplifier.netBalances(members, debtors, creditors, cents);
+        List<DebtSimplifier.Transfer> transfers = debtSimplifier.simplify(members, net);
+
+        Map<Long, User> usersById = userRepository.findByIdIn(transfers.stream()
+                .flatMap(t -> Stream.of(t.getFromUserId(), t.getToUserId()))
+                .distinct()
+                .collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        SettlementPlanDTO plan = new SettlementPlanDTO();
+        plan.setMembers(members.length);
+        plan.setOpenBalances(open.size());
+        plan.setExact(debtSimplifier.isExact((int) Arrays.stream(net).filter(amount -> amount != 0).count()));
+        for (DebtSimplifier.Transfer transfer : transfers) {
+            User from = usersById.get(transfer.getFromUserId());
+            User to = usersById.get(transfer.getToUserId());
+            plan.getTransfers().add(new SettlementDTO(
+                transfer.getFromUserId(), from != null ? from.getName() : null,
+                transfer.getToUserId(), to != null ? to.getName() : null,
+                SplitCalculator.toAmount(transfer.getCents())));
+        }
+        log.debug("Settlement for {} members: {} open balances -> {} transfers",
+            members.length, open.size(), transfers.size());
+        return plan;
+    }
+}
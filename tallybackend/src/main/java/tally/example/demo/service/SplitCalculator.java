@@ -0,0 +1,179 @@
+package tally.example.demo.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+
+/**
+ * Splits a bill in whole cents so that the shares always add back up to the
+ * bill total. Every amount (each item, the tax, the tip) is divided with the
+ * largest-remainder method: everyone gets the floor of their exact share and
+ * the leftover cents go to the largest fractional parts, lowest index first on
+ * ties.
+ *
+ * Item portions are relative weights among the item's assignees. Items nobody
+ * is assigned to are shared equally by all participants. Tax and tip are split
+ * either equally or in proportion to each participant's item subtotal.
+ */
+@Component
+public class SplitCalculator {
+    // Portions are doubles on the entity; fixed-point weights keep the remainder arithmetic exact
+    private static final double WEIGHT_SCALE = 1_000_000d;
+
+    public enum Mode { EQUAL, PROPORTIONAL }
+
+    @Getter
+    public static class Split {
+        private final long[] subtotal;
+        private final long[] tax;
+        private final long[] tip;
+        private final long[] assignmentShare;
+
+        Split(int participants, int assignments) {
+            subtotal = new long[participants];
+            tax = new long[participants];
+            tip = new long[participants];
+            assignmentShare = new long[assignments];
+        }
+
+        public long total(int participant) {
+            return subtotal[participant] + tax[participant] + tip[participant];
+        }
+    }
+
+    /**
+     * @param itemCents            line total of each item
+     * @param assignmentItem       item index of each assignment; assignments of one item must be contiguous
+     * @param assignmentParticipant participant index of each assignment
+     * @param assignmentPortion    relative weight of each assignment within its item
+     * @param participants         number of participants
+     */
+    public Split split(long[] itemCents, int[] assignmentItem, int[] assignmentParticipant,
+                       double[] assignmentPortion, int participants,
+                       long taxCents, long tipCents, Mode mode) {
+        int assignments = assignmentItem.length;
+        Split split = new Split(participants, assignments);
+        if (participants == 0) {
+            return split;
+        }
+
+        // Scratch space sized once for the largest group handled below
+        int scratchSize = Math.max(participants, assignments);
+        long[] weights = new long[scratchSize];
+        long[] shares = new long[scratchSize];
+        long[] remainders = new long[scratchSize];
+
+        int k = 0;
+        for (int item = 0; item < itemCents.length; item++) {
+            int from = k;
+            while (k < assignments && assignmentItem[k] == item) {
+                k++;
+            }
+            int count = k - from;
+            if (count == 0) {
+                fill(weights, participants, 1);
+                allocate(itemCents[item], weights, participants, shares, remainders);
+                for (int p = 0; p < participants; p++) {
+                    split.subtotal[p] += shares[p];
+                }
+                continue;
+            }
+            for (int a = 0; a < count; a++) {
+                weights[a] = toWeight(assignmentPortion[from + a]);
+            }
+            allocate(itemCents[item], weights, count, shares, remainders);
+            for (int a = 0; a < count; a++) {
+                split.assignmentShare[from + a] = shares[a];
+                split.subtotal[assignmentParticipant[from + a]] += shares[a];
+            }
+        }
+        if (k != assignments) {
+            throw new IllegalArgumentException("Assignments must be grouped by item index");
+        }
+
+        if (mode == Mode.PROPORTIONAL) {
+            System.arraycopy(split.subtotal, 0, weights, 0, participants);
+        } else {
+            fill(weights, participants, 1);
+        }
+        allocate(taxCents, weights, participants, split.tax, remainders);
+        allocate(tipCents, weights, participants, split.tip, remainders);
+        return split;
+    }
+
+    /**
+     * Writes {@code total} split by {@code weights[0..n)} into {@code out}. Negative
+     * weights count as zero and all-zero weights fall back to an equal split;
+     * both are written back to {@code weights}. Negative totals are split by magnitude.
+     */
+    static void allocate(long total, long[] weights, int n, long[] out, long[] remainders) {
+        long weightSum = 0;
+        for (int i = 0; i < n; i++) {
+            // A proportional weight is an item subtotal, which discount lines can take below zero
+            if (weights[i] < 0) {
+                weights[i] = 0;
+            }
+            weightSum += weights[i];
+        }
+        if (weightSum == 0) {
+            fill(weights, n, 1);
+            weightSum = n;
+        }
+
+        long sign = total < 0 ? -1 : 1;
+        long magnitude = Math.abs(total);
+        long given = 0;
+        for (int i = 0; i < n; i++) {
+            // Throws rather than silently wrapping for amounts no real bill reaches
+            long exact = Math.multiplyExact(magnitude, weights[i]);
+            out[i] = exact / weightSum;
+            remainders[i] = exact % weightSum;
+            given += out[i];
+        }
+
+        for (long left = magnitude - given; left > 0; left--) {
+            int best = -1;
+            for (int i = 0; i < n; i++) {
+                if (remainders[i] >= 0 && (best < 0 || remainders[i] > remainders[best])) {
+                    best = i;
+                }
+            }
+            out[best]++;
+            // Each part gets at most one extra cent
+            remainders[best] = -1;
+        }
+
+        if (sign < 0) {
+            for (int i = 0; i < n; i++) {
+                out[i] = -out[i];
+            }
+        }
+    }
+
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static long toWeight(double portion) {
+        if (Double.isNaN(portion) || Double.isInfinite(portion) || portion < 0) {
+            throw new IllegalArgumentException("Invalid portion: " + portion);
+        }
+        return Math.round(portion * WEIGHT_SCALE);
+    }
+
+    private static void fill(long[] values, int n, long value) {
+        for (int i = 0; i < n; i++) {
+            values[i] = value;
+        }
+    }
+}
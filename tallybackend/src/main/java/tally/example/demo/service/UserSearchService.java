@@ -0,0 +1,398 @@
+package tally.example.demo.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.dto.UserDTO;
+import tally.example.demo.dto.projection.UserSearchRow;
+import tally.example.demo.mapper.ModelMapper;
+import tally.example.demo.model.User;
+import tally.example.demo.repository.UserRepository;
+
+/**
+ * In-process prefix index over active users' names and emails, for the friend
+ * selector. Tokens live in a sorted skip list, so a prefix is one range lookup;
+ * when prefixes alone don't fill the page, one-edit variants of the query are
+ * tried too, which catches a single typo without scanning the token list.
+ *
+ * The index is built from the table once after startup and then kept current
+ * by UserService after each committed write. Until the build finishes, search
+ * falls back to a LIKE query.
+ */
+@Slf4j
+@Service
+public class UserSearchService {
+    public static final int MAX_RESULTS = 50;
+    // Bounds the work per query however common a prefix is; lexicographic order visits exact tokens first
+    private static final int MAX_CANDIDATES = 500;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final char[] FUZZY_ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final UserRepository userRepository;
+    private final ModelMapper modelMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Object writeLock = new Object();
+    private volatile Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Token -> sorted ids of users carrying it; arrays are replaced, never modified in place
+    private volatile ConcurrentSkipListMap<String, long[]> postings = new ConcurrentSkipListMap<>();
+    private volatile boolean ready;
+    // Users written while the initial build was running; re-read once it is swapped in
+    private final Set<Long> pending = new HashSet<>();
+
+    public UserSearchService(UserRepository userRepository, ModelMapper modelMapper,
+            PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.modelMapper = modelMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Value
+    private static class Entry {
+        Long id;
+        String name;
+        String email;
+        String photoUrl;
+        // Sorted, so a prefix check is one binary search
+        String[] tokens;
+    }
+
+    @Value
+    private static class Hit {
+        Entry entry;
+        int score;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        Thread builder = new Thread(this::rebuild, "user-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /** Reflects the user's current state once the surrounding transaction commits. */
+    public void index(User user) {
+        if (Boolean.TRUE.equals(user.getActive())) {
+            UserSearchRow row = new UserSearchRow(user.getId(), user.getName(), user.getEmail(), user.getPhotoUrl());
+            AfterCommit.run(() -> put(row));
+        } else {
+            Long userId = user.getId();
+            AfterCommit.run(() -> remove(userId));
+        }
+    }
+
+    /** False until the initial build is swapped in; search reads the database until then. */
+    boolean isReady() {
+        return ready;
+    }
+
+    public List<UserDTO> search(String query, int limit) {
+        String normalized = normalize(query == null ? "" : query).trim();
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (!ready) {
+            return searchDatabase(normalized, limit);
+        }
+
+        // An email-looking query is matched against whole addresses rather than split into words
+        boolean emailQuery = normalized.indexOf('@') >= 0;
+        String[] terms = emailQuery ? new String[] {normalized} : tokenize(normalized);
+        if (terms.length == 0) {
+            return List.of();
+        }
+        String drive = terms[0];
+        for (String term : terms) {
+            if (term.length() > drive.length()) {
+                drive = term;
+            }
+        }
+
+        Map<Long, Entry> current = entries;
+        ConcurrentSkipListMap<String, long[]> tokens = postings;
+        Map<Long, Hit> hits = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        collect(tokens.subMap(drive, true, drive + Character.MAX_VALUE, false), seen);
+        score(seen, terms, null, emailQuery ? normalized : null, current, hits);
+
+        if (hits.size() < limit && drive.length() >= MIN_FUZZY_LENGTH && !emailQuery) {
+            Set<Long> fuzzy = new HashSet<>();
+            for (String variant : oneEditVariants(drive)) {
+                if (fuzzy.size() >= MAX_CANDIDATES) {
+                    break;
+                }
+                collect(tokens.subMap(variant, true, variant + Character.MAX_VALUE, false), fuzzy);
+            }
+            fuzzy.removeAll(seen);
+            score(fuzzy, terms, drive, null, current, hits);
+        }
+
+        return hits.values().stream()
+            .sorted(Comparator.comparingInt(Hit::getScore)
+                .thenComparing(hit -> hit.getEntry().getName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                .thenComparing(hit -> hit.getEntry().getId()))
+            .limit(limit)
+            .map(hit -> toUserDTO(hit.getEntry()))
+            .toList();
+    }
+
+    private void rebuild() {
+        long started = System.nanoTime();
+        Map<Long, Entry> builtEntries = new HashMap<>();
+        Map<String, SortedIds.Builder> builtPostings = new HashMap<>();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<UserSearchRow> rows = userRepository.streamSearchRows()) {
+                    rows.forEach(row -> {
+                        Entry entry = toEntry(row);
+                        builtEntries.put(entry.getId(), entry);
+                        for (String token : entry.getTokens()) {
+                            builtPostings.computeIfAbsent(token, t -> new SortedIds.Builder()).add(entry.getId());
+                        }
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Building the user search index failed; search stays on the database", e);
+            return;
+        }
+
+        ConcurrentSkipListMap<String, long[]> sorted = new ConcurrentSkipListMap<>();
+        builtPostings.forEach((token, ids) -> sorted.put(token, ids.build()));
+        synchronized (writeLock) {
+            entries = new ConcurrentHashMap<>(builtEntries);
+            postings = sorted;
+            ready = true;
+        }
+        replayPending();
+        log.info("User search index built: {} users, {} tokens in {} ms",
+            builtEntries.size(), sorted.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void replayPending() {
+        List<Long> ids;
+        synchronized (writeLock) {
+            ids = new ArrayList<>(pending);
+            pending.clear();
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, User> users = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status ->
+            userRepository.findByIdIn(ids).forEach(user -> users.put(user.getId(), user)));
+        for (Long id : ids) {
+            User user = users.get(id);
+            if (user != null && Boolean.TRUE.equals(user.getActive())) {
+                put(new UserSearchRow(user.getId(), user.getName(), user.getEmail(), user.getPhotoUrl()));
+            } else {
+                remove(id);
+            }
+        }
+    }
+
+    private void put(UserSearchRow row) {
+        synchronized (writeLock) {
+            if (!ready) {
+                pending.add(row.getId());
+                return;
+            }
+            Entry entry = toEntry(row);
+            Entry previous = entries.put(entry.getId(), entry);
+            String[] before = previous != null ? previous.getTokens() : new String[0];
+            for (String token : before) {
+                if (Arrays.binarySearch(entry.getTokens(), token) < 0) {
+                    postings.computeIfPresent(token, (t, ids) -> withoutOrDrop(ids, entry.getId()));
+                }
+            }
+            for (String token : entry.getTokens()) {
+                if (Arrays.binarySearch(before, token) < 0) {
+                    postings.merge(token, new long[] {entry.getId()}, (ids, added) -> SortedIds.with(ids, entry.getId()));
+                }
+            }
+        }
+    }
+
+    private void remove(Long userId) {
+        synchronized (writeLock) {
+            if (!ready) {
+                pending.add(userId);
+                return;
+            }
+            Entry previous = entries.remove(userId);
+            if (previous == null) {
+                return;
+            }
+            for (String token : previous.getTokens()) {
+                postings.computeIfPresent(token, (t, ids) -> withoutOrDrop(ids, userId));
+            }
+        }
+    }
+
+    private static void collect(NavigableMap<String, long[]> range, Set<Long> into) {
+        for (long[] ids : range.values()) {
+            for (long id : ids) {
+                into.add(id);
+                if (into.size() >= MAX_CANDIDATES) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lower is better: 0 per term that equals a whole token, 1 per prefix match,
+     * 2 for the typo-tolerant match; an exact email beats everything.
+     *
+     * @param fuzzyTerm the term the candidates were found by a one-edit variant of, or null
+     * @param email the whole query when it is an email address, or null
+     */
+    private static void score(Set<Long> candidates, String[] terms, String fuzzyTerm, String email,
+            Map<Long, Entry> current, Map<Long, Hit> hits) {
+        for (Long id : candidates) {
+            Entry entry = current.get(id);
+            if (entry == null) {
+                continue;
+            }
+            int score = 0;
+            boolean matches = true;
+            for (String term : terms) {
+                if (term.equals(fuzzyTerm)) {
+                    score += 2;
+                    continue;
+                }
+                int match = prefixMatch(entry.getTokens(), term);
+                if (match < 0) {
+                    matches = false;
+                    break;
+                }
+                score += match;
+            }
+            if (!matches) {
+                continue;
+            }
+            if (email != null && Arrays.binarySearch(entry.getTokens(), email) >= 0) {
+                score = -1;
+            }
+            hits.merge(id, new Hit(entry, score), (a, b) -> a.getScore() <= b.getScore() ? a : b);
+        }
+    }
+
+    /** 0 if a token equals the term, 1 if one starts with it, -1 if none does. */
+    private static int prefixMatch(String[] tokens, String term) {
+        int at = Arrays.binarySearch(tokens, term);
+        if (at >= 0) {
+            return 0;
+        }
+        int next = -at - 1;
+        return next < tokens.length && tokens[next].startsWith(term) ? 1 : -1;
+    }
+
+    // Deletions, transpositions, substitutions and insertions; each is then looked up as a prefix
+    private static Set<String> oneEditVariants(String term) {
+        Set<String> variants = new LinkedHashSet<>();
+        StringBuilder buffer = new StringBuilder(term.length() + 1);
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(buffer.append(term, 0, i).append(term, i + 1, term.length()).toString());
+            buffer.setLength(0);
+        }
+        for (int i = 0; i + 1 < term.length(); i++) {
+            char[] chars = term.toCharArray();
+            char swap = chars[i];
+            chars[i] = chars[i + 1];
+            chars[i + 1] = swap;
+            variants.add(new String(chars));
+        }
+        for (int i = 0; i < term.length(); i++) {
+            for (char c : FUZZY_ALPHABET) {
+                if (c != term.charAt(i)) {
+                    variants.add(buffer.append(term, 0, i).append(c).append(term, i + 1, term.length()).toString());
+                    buffer.setLength(0);
+                }
+            }
+        }
+        for (int i = 0; i <= term.length(); i++) {
+            for (char c : FUZZY_ALPHABET) {
+                variants.add(buffer.append(term, 0, i).append(c).append(term, i, term.length()).toString());
+                buffer.setLength(0);
+            }
+        }
+        variants.remove(term);
+        // A deletion can leave a prefix short enough to match half the index
+        variants.removeIf(variant -> variant.length() < MIN_FUZZY_LENGTH);
+        return variants;
+    }
+
+    private List<UserDTO> searchDatabase(String prefix, int limit) {
+        String escaped = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return readOnlyTransaction.execute(status -> modelMapper.toUserDTOs(
+            userRepository.searchByPrefix(escaped, PageRequest.of(0, limit))));
+    }
+
+    private static Entry toEntry(UserSearchRow row) {
+        TreeSet<String> tokens = new TreeSet<>();
+        if (row.getName() != null) {
+            tokens.addAll(Arrays.asList(tokenize(normalize(row.getName()))));
+        }
+        if (row.getEmail() != null) {
+            String email = normalize(row.getEmail()).trim();
+            tokens.add(email);
+            int at = email.indexOf('@');
+            tokens.addAll(Arrays.asList(tokenize(at >= 0 ? email.substring(0, at) : email)));
+        }
+        return new Entry(row.getId(), row.getName(), row.getEmail(), row.getPhotoUrl(), tokens.toArray(new String[0]));
+    }
+
+    private UserDTO toUserDTO(Entry entry) {
+        UserDTO dto = new UserDTO();
+        dto.setId(entry.getId());
+        dto.setName(entry.getName());
+        dto.setEmail(entry.getEmail());
+        dto.setPhotoUrl(entry.getPhotoUrl());
+        return dto;
+    }
+
+    private static String[] tokenize(String normalized) {
+        return Arrays.stream(NON_WORD.split(normalized))
+            .filter(token -> !token.isEmpty())
+            .toArray(String[]::new);
+    }
+
+    // Case- and accent-insensitive: "José" is found by "jose"
+    private static String normalize(String text) {
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // Returning null drops the token once its last user is gone
+    private static long[] withoutOrDrop(long[] ids, long id) {
+        long[] remaining = SortedIds.without(ids, id);
+        return remaining.length == 0 ? null : remaining;
+    }
+}
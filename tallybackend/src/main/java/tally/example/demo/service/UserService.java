@@ -1,15 +1,32 @@
 package tally.example.demo.service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import tally.example.demo.config.CacheConfig;
+import tally.example.demo.dto.FriendSuggestionDTO;
+import tally.example.demo.dto.UserDTO;
 import tally.example.demo.exception.ApiException;
+import tally.example.demo.exception.BadRequestException;
+import tally.example.demo.exception.ConflictException;
+import tally.example.demo.exception.NotFoundException;
+import tally.example.demo.mapper.ModelMapper;
 import tally.example.demo.model.User;
 import tally.example.demo.repository.UserRepository;
 
@@ -18,13 +35,25 @@ import tally.example.demo.repository.UserRepository;
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
+    private final ModelMapper modelMapper;
+    private final FriendGraphService friendGraphService;
+    private final UserSearchService userSearchService;
+    private final ActivityService activityService;
+    private final CacheManager cacheManager;
 
     public User createUser(String email, String name) {
         User user = new User();
         user.setEmail(email);
         user.setName(name);
         user.setActive(true);
-        return userRepository.save(user);
+        try {
+            User saved = userRepository.save(user);
+            userSearchService.index(saved);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            // ux_users_email
+            throw new ConflictException("Email is already registered: " + email, e);
+        }
     }
 
     public User getOrCreateUser(Long userId) {
@@ -34,7 +63,9 @@ public class UserService {
                 newUser.setId(userId);
                 newUser.setName("User " + userId);
                 newUser.setActive(true);
-                return userRepository.save(newUser);
+                User saved = userRepository.save(newUser);
+                userSearchService.index(saved);
+                return saved;
             });
     }
 
@@ -42,44 +73,124 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    public List<UserDTO> searchUsers(String query, int limit) {
+        return userSearchService.search(query, limit);
+    }
+
+    // Empty results aren't cached: the id may be created later
+    @Cacheable(cacheNames = CacheConfig.USERS, unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<UserDTO> findUser(Long userId) {
+        return userRepository.findById(userId).map(modelMapper::toUserDTO);
+    }
+
     public User getCurrentUser(Long userId) {
         return userRepository.findById(userId)
             .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
     }
 
+    // Names also appear in other users' friend lists and in bill participants
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+        @CacheEvict(cacheNames = CacheConfig.FRIENDS, allEntries = true),
+        @CacheEvict(cacheNames = CacheConfig.BILL_DETAILS, allEntries = true),
+        @CacheEvict(cacheNames = CacheConfig.BILL_SPLITS, allEntries = true)
+    })
     @Transactional
     public User updateUser(Long userId, String email, String name, String photoUrl) {
         User user = getCurrentUser(userId);
         user.setEmail(email);
         user.setName(name);
         user.setPhotoUrl(photoUrl);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userSearchService.index(saved);
+        return saved;
     }
 
+    // Both ends are evicted, so neither side can keep serving a list from before the edge changed
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.FRIENDS, key = "#userId"),
+        @CacheEvict(cacheNames = CacheConfig.FRIENDS, key = "#friendId")
+    })
     @Transactional
     public void addFriend(Long userId, Long friendId) {
-        User user = getCurrentUser(userId);
-        User friend = getCurrentUser(friendId);
-        user.getFriends().add(friend);
-        userRepository.save(user);
+        requireFriendPair(userId, friendId);
+        if (friendGraphService.addFriend(userId, friendId)) {
+            activityService.recordFriendAdded(userId, friendId);
+        }
     }
 
-    public List<User> getFriends(Long userId) {
-        User user = getCurrentUser(userId);
-        return new ArrayList<>(user.getFriends());
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.FRIENDS, key = "#userId"),
+        @CacheEvict(cacheNames = CacheConfig.FRIENDS, key = "#friendId")
+    })
+    @Transactional
+    public void removeFriend(Long userId, Long friendId) {
+        requireFriendPair(userId, friendId);
+        friendGraphService.removeFriend(userId, friendId);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.FRIENDS)
+    @Transactional(readOnly = true)
+    public List<UserDTO> getFriends(Long userId) {
+        long[] friendIds = friendGraphService.friendIds(userId);
+        if (friendIds.length == 0) {
+            requireUser(userId);
+            return List.of();
+        }
+        List<User> friends = new ArrayList<>(userRepository.findByIdIn(
+            Arrays.stream(friendIds).boxed().collect(Collectors.toList())));
+        // Deactivated accounts drop out of friend lists until they are reactivated
+        friends.removeIf(friend -> Boolean.FALSE.equals(friend.getActive()));
+        friends.sort(Comparator.comparing(User::getId));
+        return modelMapper.toUserDTOs(friends);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FriendSuggestionDTO> suggestFriends(Long userId, int limit) {
+        requireUser(userId);
+        return friendGraphService.suggestFriends(userId, limit);
+    }
+
+    private void requireFriendPair(Long userId, Long friendId) {
+        if (userId.equals(friendId)) {
+            throw new BadRequestException("Users cannot befriend themselves");
+        }
+        requireUser(userId);
+        requireUser(friendId);
     }
 
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User not found");
+        }
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId")
     @Transactional
     public void deactivateAccount(Long userId) {
         User user = getCurrentUser(userId);
         user.setActive(false);
         userRepository.save(user);
+        userSearchService.index(user);
+        evictFriendListsShowing(userId);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId")
     @Transactional
     public void reactivateAccount(Long userId) {
         User user = getCurrentUser(userId);
         user.setActive(true);
         userRepository.save(user);
+        userSearchService.index(user);
+        evictFriendListsShowing(userId);
+    }
+
+    // Friend lists are cached under their owners, so each list showing the user goes with the change
+    private void evictFriendListsShowing(Long userId) {
+        Cache friends = cacheManager.getCache(CacheConfig.FRIENDS);
+        for (Long listOwnerId : userRepository.findUserIdsByFriendId(userId)) {
+            friends.evict(listOwnerId);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,282 @@
+package tally.example.demo.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import tally.example.demo.dto.UserStatsDTO;
+import tally.example.demo.model.Bill;
+import tally.example.demo.model.BillItem;
+import tally.example.demo.model.BillParticipant;
+import tally.example.demo.model.UserMonthlyStats;
+import tally.example.demo.repository.UpsertRepository;
+import tally.example.demo.repository.UserMonthlyItemStatsRepository;
+import tally.example.demo.repository.UserMonthlyStatsRepository;
+
+/**
+ * Keeps the per-user monthly rollups behind the stats page in step with
+ * bills. Like the balance ledger, writes join the bill's transaction, so the
+ * rollups commit or roll back with the change that moved them.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserStatsService {
+    public static final int DEFAULT_MONTHS = 12;
+    public static final int MAX_MONTHS = 120;
+    public static final int TOP_ITEMS = 10;
+    private static final int MAX_ITEM_NAME_LENGTH = 255;
+    private static final Comparator<MonthKey> MONTH_ORDER =
+        Comparator.comparing(MonthKey::getUserId).thenComparing(MonthKey::getMonthStart);
+    private static final Comparator<ItemKey> ITEM_ORDER =
+        Comparator.comparing(ItemKey::getUserId)
+            .thenComparing(ItemKey::getMonthStart)
+            .thenComparing(ItemKey::getItemName);
+
+    private final UserMonthlyStatsRepository monthlyRepository;
+    private final UserMonthlyItemStatsRepository itemRepository;
+    private final UpsertRepository upsertRepository;
+    private final Clock clock;
+
+    // sign is 1 when the bill is created and -1 when it is deleted
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyBill(Bill bill, int sign) {
+        Deltas deltas = new Deltas();
+        addBill(deltas, bill, bill.getCreatorId(), sign, sign > 0);
+        apply(deltas);
+    }
+
+    /*
+     * The bill's creator has changed from previousCreatorId: what it counted
+     * for them moves to the new creator. Payments already made stay with the
+     * users and months they were recorded for.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void moveBill(Bill bill, Long previousCreatorId) {
+        Deltas deltas = new Deltas();
+        addBill(deltas, bill, previousCreatorId, -1, false);
+        addBill(deltas, bill, bill.getCreatorId(), 1, false);
+        apply(deltas);
+    }
+
+    // Bulk variant for imports: deltas are merged first, so each month row is written once per call
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyBills(Collection<Bill> bills) {
+        Deltas deltas = new Deltas();
+        for (Bill bill : bills) {
+            addBill(deltas, bill, bill.getCreatorId(), 1, true);
+        }
+        apply(deltas);
+    }
+
+    // Counted in the month the payment is made, not the month of the bill
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPayment(Bill bill, BillParticipant participant) {
+        BigDecimal amount = participant.getAmount();
+        Long payerId = participant.getUser().getId();
+        Long creditorId = creditorOf(bill);
+        if (amount == null || payerId.equals(creditorId)) {
+            return;
+        }
+        LocalDate month = YearMonth.now(clock).atDay(1);
+        Deltas deltas = new Deltas();
+        deltas.month(payerId, month).paid = amount;
+        deltas.month(creditorId, month).received = amount;
+        apply(deltas);
+    }
+
+    /**
+     * Totals for the months from {@code from} to {@code to} inclusive. Either
+     * end may be null: the range then defaults to the {@link #DEFAULT_MONTHS}
+     * months ending at {@code to}, or at the current month.
+     */
+    @Transactional(readOnly = true)
+    public UserStatsDTO getStats(Long userId, YearMonth from, YearMonth to) {
+        YearMonth end = to != null ? to : (from != null ? from.plusMonths(DEFAULT_MONTHS - 1) : YearMonth.now(clock));
+        YearMonth start = from != null ? from : end.minusMonths(DEFAULT_MONTHS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (start.plusMonths(MAX_MONTHS).isBefore(end.plusMonths(1))) {
+            throw new IllegalArgumentException("Range must not exceed " + MAX_MONTHS + " months");
+        }
+        LocalDate startDay = start.atDay(1);
+        LocalDate endDay = end.atDay(1);
+
+        Map<LocalDate, UserMonthlyStats> byMonth = monthlyRepository.findRange(userId, startDay, endDay).stream()
+            .collect(Collectors.toMap(UserMonthlyStats::getMonthStart, Function.identity()));
+
+        UserStatsDTO stats = new UserStatsDTO();
+        stats.setUserId(userId);
+        stats.setFrom(start);
+        stats.setTo(end);
+        for (YearMonth month = start; !month.isAfter(end); month = month.plusMonths(1)) {
+            UserMonthlyStats row = byMonth.getOrDefault(month.atDay(1), new UserMonthlyStats(userId, month.atDay(1)));
+            stats.getMonths().add(new UserStatsDTO.MonthStats(month,
+                row.getSpent(), row.getOwed(), row.getPaid(), row.getReceived(), row.getBillCount()));
+            stats.setSpent(stats.getSpent().add(row.getSpent()));
+            stats.setOwed(stats.getOwed().add(row.getOwed()));
+            stats.setPaid(stats.getPaid().add(row.getPaid()));
+            stats.setReceived(stats.getReceived().add(row.getReceived()));
+            stats.setBillCount(stats.getBillCount() + row.getBillCount());
+        }
+        for (Object[] row : itemRepository.findTopItems(userId, startDay, endDay, PageRequest.of(0, TOP_ITEMS))) {
+            stats.getTopItems().add(new UserStatsDTO.ItemStats((String) row[0], (BigDecimal) row[1]));
+        }
+        return stats;
+    }
+
+    private void apply(Deltas deltas) {
+        // Sorted so concurrent writers lock rows in the same order
+        Map<MonthKey, MonthDelta> months = new TreeMap<>(MONTH_ORDER);
+        months.putAll(deltas.months);
+        months.forEach((key, delta) -> {
+            if (delta.isZero()) {
+                return;
+            }
+            upsertRepository.addToMonth(key.getUserId(), key.getMonthStart(),
+                delta.spent, delta.owed, delta.paid, delta.received, delta.billCount);
+        });
+
+        Map<ItemKey, BigDecimal> items = new TreeMap<>(ITEM_ORDER);
+        items.putAll(deltas.items);
+        items.forEach((key, amount) -> {
+            if (amount.signum() == 0) {
+                return;
+            }
+            upsertRepository.addToItem(key.getUserId(), key.getMonthStart(), key.getItemName(), amount);
+        });
+    }
+
+    /*
+     * A bill counts in its creation month: each participant spent their share,
+     * the payer is owed everyone else's, and everyone on the bill gets one to
+     * its bill count. Settled shares are counted as paid only when asked, as
+     * for a new or imported bill; otherwise the payment stays where it was
+     * recorded, in its own month.
+     */
+    private static void addBill(Deltas deltas, Bill bill, Long creatorId, int sign, boolean countPayments) {
+        LocalDateTime createdAt = bill.getCreatedAt();
+        if (createdAt == null) {
+            return;
+        }
+        LocalDate month = YearMonth.from(createdAt).atDay(1);
+        Long creditorId = bill.getPayerId() != null ? bill.getPayerId() : creatorId;
+
+        Map<Long, BigDecimal> shares = new HashMap<>();
+        Set<Long> members = new HashSet<>();
+        members.add(creatorId);
+        if (bill.getPayerId() != null) {
+            members.add(bill.getPayerId());
+        }
+        for (BillParticipant participant : bill.getParticipants()) {
+            Long userId = participant.getUser().getId();
+            members.add(userId);
+            if (participant.getAmount() == null) {
+                continue;
+            }
+            BigDecimal amount = sign < 0 ? participant.getAmount().negate() : participant.getAmount();
+            shares.merge(userId, participant.getAmount(), BigDecimal::add);
+            MonthDelta own = deltas.month(userId, month);
+            own.spent = own.spent.add(amount);
+            if (!userId.equals(creditorId)) {
+                MonthDelta creditor = deltas.month(creditorId, month);
+                creditor.owed = creditor.owed.add(amount);
+                if (countPayments && Boolean.TRUE.equals(participant.getPaid())) {
+                    own.paid = own.paid.add(amount);
+                    creditor.received = creditor.received.add(amount);
+                }
+            }
+        }
+        for (Long userId : members) {
+            deltas.month(userId, month).billCount += sign;
+        }
+        addItems(deltas, bill, month, shares, sign);
+    }
+
+    // Each item is split between the participants in proportion to their shares of the bill
+    private static void addItems(Deltas deltas, Bill bill, LocalDate month, Map<Long, BigDecimal> shares, int sign) {
+        BigDecimal total = shares.values().stream()
+            .filter(share -> share.signum() > 0)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (total.signum() <= 0 || bill.getItems() == null) {
+            return;
+        }
+        for (BillItem item : bill.getItems()) {
+            String name = item.getName() != null ? item.getName().trim() : "";
+            if (name.isEmpty() || item.getPrice() == null) {
+                continue;
+            }
+            if (name.length() > MAX_ITEM_NAME_LENGTH) {
+                name = name.substring(0, MAX_ITEM_NAME_LENGTH);
+            }
+            int quantity = item.getQuantity() != null ? item.getQuantity() : 1;
+            BigDecimal itemTotal = item.getPrice().multiply(BigDecimal.valueOf(quantity));
+            for (Map.Entry<Long, BigDecimal> share : shares.entrySet()) {
+                if (share.getValue().signum() <= 0) {
+                    continue;
+                }
+                BigDecimal amount = itemTotal.multiply(share.getValue()).divide(total, 2, RoundingMode.HALF_UP);
+                deltas.items.merge(new ItemKey(share.getKey(), month, name),
+                    sign < 0 ? amount.negate() : amount, BigDecimal::add);
+            }
+        }
+    }
+
+    private static Long creditorOf(Bill bill) {
+        return bill.getPayerId() != null ? bill.getPayerId() : bill.getCreatorId();
+    }
+
+    private static class Deltas {
+        final Map<MonthKey, MonthDelta> months = new HashMap<>();
+        final Map<ItemKey, BigDecimal> items = new HashMap<>();
+
+        MonthDelta month(Long userId, LocalDate monthStart) {
+            return months.computeIfAbsent(new MonthKey(userId, monthStart), key -> new MonthDelta());
+        }
+    }
+
+    private static class MonthDelta {
+        BigDecimal spent = BigDecimal.ZERO;
+        BigDecimal owed = BigDecimal.ZERO;
+        BigDecimal paid = BigDecimal.ZERO;
+        BigDecimal received = BigDecimal.ZERO;
+        int billCount;
+
+        boolean isZero() {
+            return spent.signum() == 0 && owed.signum() == 0 && paid.signum() == 0
+                && received.signum() == 0 && billCount == 0;
+        }
+    }
+
+    @Value
+    private static class MonthKey {
+        Long userId;
+        LocalDate monthStart;
+    }
+
+    @Value
+    private static class ItemKey {
+        Long userId;
+        LocalDate monthStart;
+        String itemName;
+    }
+}
@@ -0,0 +1,87 @@
+-- Same schema as the MySQL baseline, with native sequences
+
+create table users (
+    id bigint generated by default as identity,
+    name varchar(255),
+    email varchar(255),
+    photo_url varchar(255),
+    active boolean,
+    primary key (id)
+);
+
+create table user_friends (
+    user_id bigint not null,
+    friend_id bigint not null,
+    primary key (friend_id, user_id)
+);
+
+create table bills (
+    id bigint not null,
+    name varchar(255),
+    creator_id bigint,
+    payer_id bigint,
+    tax numeric(10,2),
+    tip numeric(10,2),
+    created_at timestamp(6),
+    version bigint not null,
+    primary key (id)
+);
+
+create table bill_items (
+    id bigint not null,
+    bill_id bigint,
+    name varchar(255),
+    price numeric(10,2),
+    quantity integer,
+    primary key (id)
+);
+
+create table bill_item_assignments (
+    id bigint not null,
+    bill_item_id bigint,
+    user_id bigint,
+    portion float(53),
+    primary key (id)
+);
+
+create table bill_participants (
+    id bigint not null,
+    bill_id bigint,
+    user_id bigint,
+    amount numeric(10,2),
+    paid boolean,
+    version bigint not null,
+    primary key (id)
+);
+
+create table user_balances (
+    id bigint not null,
+    user_id bigint not null,
+    counterparty_id bigint not null,
+    amount numeric(12,2) not null,
+    updated_at timestamp(6),
+    primary key (id),
+    unique (user_id, counterparty_id)
+);
+
+create table user_balance_totals (
+    user_id bigint not null,
+    owes numeric(12,2) not null,
+    owed numeric(12,2) not null,
+    version bigint not null,
+    primary key (user_id)
+);
+
+create sequence bills_seq start with 1 increment by 50;
+create sequence bill_items_seq start with 1 increment by 50;
+create sequence bill_item_assignments_seq start with 1 increment by 50;
+create sequence bill_participants_seq start with 1 increment by 50;
+create sequence user_balances_seq start with 1 increment by 50;
+
+alter table user_friends add constraint FKk08ugelrh9cea1oew3hgxryw2 foreign key (user_id) references users;
+alter table user_friends add constraint FK11y5boh1e7gh60rdqixyetv3x foreign key (friend_id) references users;
+alter table bill_items add constraint FKj9o7g8krc56gf6t6f0sy4ic5p foreign key (bill_id) references bills;
+alter table bill_item_assignments add constraint FKcvwkl7u7xd2tvb5npj2jwhbit foreign key (bill_item_id) references bill_items;
+alter table bill_item_assignments add constraint FKejhqtlvxgl6ywn9yy0egj46so foreign key (user_id) references users;
+alter table bill_participants add constraint FK2bi80t6gaihdisir5388nsv9l foreign key (bill_id) references bills;
+alter table bill_participants add constraint FKg6vkpm46cymrrrpse9ilmnf2j foreign key (user_id) references users;
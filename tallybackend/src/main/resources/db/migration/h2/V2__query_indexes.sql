@@ -0,0 +1,13 @@
+-- Indexes for the repository queries; ddl-auto only ever created primary keys and foreign keys
+
+-- Bill listing and export: creator_id = ? ordered by (created_at, id)
+create index idx_bills_creator_created on bills (creator_id, created_at);
+
+-- "Bills I take part in" EXISTS probe, open shares per user and settle-up lookups
+create index idx_bill_participants_user_paid_bill on bill_participants (user_id, paid, bill_id);
+
+-- findByEmail; also stops two accounts from sharing an address
+create unique index ux_users_email on users (email);
+
+-- Ledger reads match a user on either side of the pair; the unique key only covers user_id first
+create index idx_user_balances_counterparty on user_balances (counterparty_id);
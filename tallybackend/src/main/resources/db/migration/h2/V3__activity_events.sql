@@ -0,0 +1,19 @@
+-- Append-only activity feed: one row per user who should see an event, so a feed page
+-- is a single range scan of (user_id, id) however long the account's history is
+
+create table activity_events (
+    id bigint not null,
+    user_id bigint not null,
+    type varchar(32) not null,
+    actor_id bigint,
+    bill_id bigint,
+    bill_name varchar(255),
+    other_user_id bigint,
+    amount numeric(10,2),
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+
+create index idx_activity_events_user_id on activity_events (user_id, id);
+
+create sequence activity_events_seq start with 1 increment by 50;
@@ -0,0 +1,22 @@
+-- Ledger rows are keyed by the user pair itself, so a delta can be applied with one atomic
+-- upsert. With a generated id, two first bills for the same pair could both miss the update,
+-- both insert, and one would fail on the unique key
+
+create table user_balances_by_pair (
+    user_id bigint not null,
+    counterparty_id bigint not null,
+    amount numeric(12,2) not null,
+    updated_at timestamp(6),
+    version bigint not null,
+    primary key (user_id, counterparty_id)
+);
+
+insert into user_balances_by_pair (user_id, counterparty_id, amount, updated_at, version)
+select user_id, counterparty_id, amount, updated_at, 0 from user_balances;
+
+drop table user_balances;
+alter table user_balances_by_pair rename to user_balances;
+
+create index idx_user_balances_counterparty on user_balances (counterparty_id);
+
+drop sequence user_balances_seq;
@@ -0,0 +1,94 @@
+-- Schema as previously generated by ddl-auto=update. Databases created that way are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and start at V2.
+
+create table users (
+    id bigint not null auto_increment,
+    name varchar(255),
+    email varchar(255),
+    photo_url varchar(255),
+    active bit,
+    primary key (id)
+) engine=InnoDB;
+
+create table user_friends (
+    user_id bigint not null,
+    friend_id bigint not null,
+    primary key (friend_id, user_id)
+) engine=InnoDB;
+
+create table bills (
+    id bigint not null,
+    name varchar(255),
+    creator_id bigint,
+    payer_id bigint,
+    tax decimal(10,2),
+    tip decimal(10,2),
+    created_at datetime(6),
+    version bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table bill_items (
+    id bigint not null,
+    bill_id bigint,
+    name varchar(255),
+    price decimal(10,2),
+    quantity integer,
+    primary key (id)
+) engine=InnoDB;
+
+create table bill_item_assignments (
+    id bigint not null,
+    bill_item_id bigint,
+    user_id bigint,
+    portion float(53),
+    primary key (id)
+) engine=InnoDB;
+
+create table bill_participants (
+    id bigint not null,
+    bill_id bigint,
+    user_id bigint,
+    amount decimal(10,2),
+    paid bit,
+    version bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table user_balances (
+    id bigint not null,
+    user_id bigint not null,
+    counterparty_id bigint not null,
+    amount decimal(12,2) not null,
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table user_balance_totals (
+    user_id bigint not null,
+    owes decimal(12,2) not null,
+    owed decimal(12,2) not null,
+    version bigint not null,
+    primary key (user_id)
+) engine=InnoDB;
+
+-- MySQL has no sequences; Hibernate keeps the next value of each generator in a one-row table
+create table bills_seq (next_val bigint) engine=InnoDB;
+insert into bills_seq values (1);
+create table bill_items_seq (next_val bigint) engine=InnoDB;
+insert into bill_items_seq values (1);
+create table bill_item_assignments_seq (next_val bigint) engine=InnoDB;
+insert into bill_item_assignments_seq values (1);
+create table bill_participants_seq (next_val bigint) engine=InnoDB;
+insert into bill_participants_seq values (1);
+create table user_balances_seq (next_val bigint) engine=InnoDB;
+insert into user_balances_seq values (1);
+
+alter table user_balances add constraint UKe80rs6sypad1biipgo2xi4sma unique (user_id, counterparty_id);
+alter table user_friends add constraint FKk08ugelrh9cea1oew3hgxryw2 foreign key (user_id) references users (id);
+alter table user_friends add constraint FK11y5boh1e7gh60rdqixyetv3x foreign key (friend_id) references users (id);
+alter table bill_items add constraint FKj9o7g8krc56gf6t6f0sy4ic5p foreign key (bill_id) references bills (id);
+alter table bill_item_assignments add constraint FKcvwkl7u7xd2tvb5npj2jwhbit foreign key (bill_item_id) references bill_items (id);
+alter table bill_item_assignments add constraint FKejhqtlvxgl6ywn9yy0egj46so foreign key (user_id) references users (id);
+alter table bill_participants add constraint FK2bi80t6gaihdisir5388nsv9l foreign key (bill_id) references bills (id);
+alter table bill_participants add constraint FKg6vkpm46cymrrrpse9ilmnf2j foreign key (user_id) references users (id);
@@ -0,0 +1,20 @@
+-- Append-only activity feed: one row per user who should see an event, so a feed page
+-- is a single range scan of (user_id, id) however long the account's history is
+
+create table activity_events (
+    id bigint not null,
+    user_id bigint not null,
+    type varchar(32) not null,
+    actor_id bigint,
+    bill_id bigint,
+    bill_name varchar(255),
+    other_user_id bigint,
+    amount decimal(10,2),
+    created_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_activity_events_user_id on activity_events (user_id, id);
+
+create table activity_events_seq (next_val bigint) engine=InnoDB;
+insert into activity_events_seq values (1);
@@ -0,0 +1,67 @@
+-- Per-user monthly rollups behind the stats page. Bill writes move them by deltas in the
+-- same transaction, so reading a year of stats is a dozen primary-key rows, not every bill
+
+create table user_monthly_stats (
+    user_id bigint not null,
+    month_start date not null,
+    spent decimal(12,2) not null,
+    owed decimal(12,2) not null,
+    paid decimal(12,2) not null,
+    received decimal(12,2) not null,
+    bill_count integer not null,
+    version bigint not null,
+    primary key (user_id, month_start)
+) engine=InnoDB;
+
+create table user_monthly_item_stats (
+    user_id bigint not null,
+    month_start date not null,
+    item_name varchar(255) not null,
+    amount decimal(12,2) not null,
+    version bigint not null,
+    primary key (user_id, month_start, item_name)
+) engine=InnoDB;
+
+-- Backfill from existing bills. No payment date was ever stored, so settled shares
+-- are counted in the month of their bill; payments from here on land in the month made
+insert into user_monthly_stats (user_id, month_start, spent, owed, paid, received, bill_count, version)
+select m.user_id, m.month_start, sum(m.spent), sum(m.owed), sum(m.paid), sum(m.received),
+       count(distinct m.bill_id), 0
+from (
+    select p.user_id, cast(date_format(b.created_at, '%Y-%m-01') as date) as month_start, b.id as bill_id,
+           coalesce(p.amount, 0) as spent, 0 as owed,
+           case when p.paid = true and p.user_id <> coalesce(b.payer_id, b.creator_id)
+                then coalesce(p.amount, 0) else 0 end as paid,
+           0 as received
+    from bills b join bill_participants p on p.bill_id = b.id
+    where b.created_at is not null
+    union all
+    select coalesce(b.payer_id, b.creator_id), cast(date_format(b.created_at, '%Y-%m-01') as date), b.id,
+           0, coalesce(p.amount, 0), 0,
+           case when p.paid = true then coalesce(p.amount, 0) else 0 end
+    from bills b join bill_participants p on p.bill_id = b.id
+    where b.created_at is not null and p.user_id <> coalesce(b.payer_id, b.creator_id)
+    union all
+    select b.creator_id, cast(date_format(b.created_at, '%Y-%m-01') as date), b.id, 0, 0, 0, 0
+    from bills b
+    where b.created_at is not null and b.creator_id is not null
+    union all
+    select b.payer_id, cast(date_format(b.created_at, '%Y-%m-01') as date), b.id, 0, 0, 0, 0
+    from bills b
+    where b.created_at is not null and b.payer_id is not null
+) m
+group by m.user_id, m.month_start;
+
+-- Each item is split between the participants in proportion to their shares of the bill
+insert into user_monthly_item_stats (user_id, month_start, item_name, amount, version)
+select s.user_id, cast(date_format(b.created_at, '%Y-%m-01') as date), trim(i.name),
+       sum(round(i.price * coalesce(i.quantity, 1) * s.share / t.total, 2)), 0
+from bills b
+join bill_items i on i.bill_id = b.id
+join (select bill_id, user_id, sum(amount) as share from bill_participants
+      where amount is not null group by bill_id, user_id) s on s.bill_id = b.id
+join (select bill_id, sum(amount) as total from bill_participants
+      where amount is not null group by bill_id) t on t.bill_id = b.id
+where b.created_at is not null and i.price is not null and trim(i.name) <> ''
+  and s.share > 0 and t.total > 0
+group by s.user_id, cast(date_format(b.created_at, '%Y-%m-01') as date), trim(i.name);
@@ -0,0 +1,14 @@
+-- Ledger rows are keyed by the user pair itself, so a delta can be applied with one atomic
+-- upsert. With a generated id, two first bills for the same pair could both miss the update,
+-- both insert, and one would fail on the unique key
+
+alter table user_balances
+    drop primary key,
+    drop column id,
+    drop index UKe80rs6sypad1biipgo2xi4sma,
+    add column version bigint not null default 0,
+    add primary key (user_id, counterparty_id);
+
+alter table user_balances alter column version drop default;
+
+drop table user_balances_seq;
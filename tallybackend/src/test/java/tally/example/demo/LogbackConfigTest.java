@@ -0,0 +1,58 @@
+package tally.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.mock.env.MockEnvironment;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+
+class LogbackConfigTest {
+    private final LoggingSystem loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+
+    @AfterEach
+    void restoreDefaultProfile() {
+        initialize();
+    }
+
+    @Test
+    void prodLogsThroughANonBlockingAsyncAppender() {
+        initialize("prod");
+
+        Logger root = rootLogger();
+        assertThat(root.getAppender("CONSOLE")).isNull();
+        AsyncAppender async = (AsyncAppender) root.getAppender("ASYNC_CONSOLE");
+        assertThat(async).isNotNull();
+        assertThat(async.isNeverBlock()).isTrue();
+        assertThat(async.isIncludeCallerData()).isFalse();
+        assertThat(async.getQueueSize()).isEqualTo(8192);
+    }
+
+    @Test
+    void otherProfilesLogStraightToTheConsole() {
+        initialize("test");
+
+        Logger root = rootLogger();
+        assertThat(root.getAppender("CONSOLE")).isNotNull();
+        assertThat(root.getAppender("ASYNC_CONSOLE")).isNull();
+    }
+
+    private void initialize(String... profiles) {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles(profiles);
+        loggingSystem.cleanUp();
+        loggingSystem.beforeInitialize();
+        loggingSystem.initialize(new LoggingInitializationContext(environment), null, null);
+    }
+
+    private static Logger rootLogger() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        return context.getLogger(Logger.ROOT_LOGGER_NAME);
+    }
+}
@@ -1 +1,13 @@
+package tally.example.demo;
 
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class TallyApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
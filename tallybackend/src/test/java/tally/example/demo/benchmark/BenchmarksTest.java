@@ -0,0 +1,24 @@
+package tally.example.demo.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks in this package. They take minutes, so they only run when asked for:
+ * {@code mvn test -Dtest=BenchmarksTest -Dbenchmarks=true}, optionally narrowed with
+ * {@code -Dbenchmarks.include=<regex>}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class BenchmarksTest {
+    @Test
+    void run() throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(getClass().getPackageName() + "\\..*" + System.getProperty("benchmarks.include", ""))
+            .build();
+        new Runner(options).run();
+    }
+}
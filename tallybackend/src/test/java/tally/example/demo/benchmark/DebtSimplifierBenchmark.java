@@ -0,0 +1,71 @@
+package tally.example.demo.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tally.example.demo.service.DebtSimplifier;
+import tally.example.demo.service.DebtSimplifier.Transfer;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DebtSimplifierBenchmark {
+    private static final int OBLIGATIONS_PER_MEMBER = 100;
+
+    private final DebtSimplifier simplifier = new DebtSimplifier();
+
+    // 16 is the largest group that still gets the exact search; 10,000 takes the greedy path
+    @Param({"16", "10000"})
+    private int members;
+
+    private long[] memberIds;
+    private long[] debtorIds;
+    private long[] creditorIds;
+    private long[] cents;
+    private long[] net;
+
+    @Setup
+    public void group() {
+        SplittableRandom random = new SplittableRandom(42);
+        memberIds = new long[members];
+        for (int i = 0; i < members; i++) {
+            memberIds[i] = 1_000 + 3L * i;
+        }
+        int obligations = members * OBLIGATIONS_PER_MEMBER;
+        debtorIds = new long[obligations];
+        creditorIds = new long[obligations];
+        cents = new long[obligations];
+        for (int k = 0; k < obligations; k++) {
+            debtorIds[k] = memberIds[random.nextInt(members)];
+            creditorIds[k] = memberIds[random.nextInt(members)];
+            cents[k] = 1 + random.nextInt(10_000);
+        }
+        net = simplifier.netBalances(memberIds, debtorIds, creditorIds, cents);
+    }
+
+    @Benchmark
+    public long[] netBalances() {
+        return simplifier.netBalances(memberIds, debtorIds, creditorIds, cents);
+    }
+
+    @Benchmark
+    public List<Transfer> simplify() {
+        return simplifier.simplify(memberIds, net);
+    }
+}
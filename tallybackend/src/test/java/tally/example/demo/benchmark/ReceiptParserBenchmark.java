@@ -0,0 +1,55 @@
+package tally.example.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tally.example.demo.dto.response.ReceiptScanResponse;
+import tally.example.demo.service.ReceiptParser;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiptParserBenchmark {
+    private final ReceiptParser parser = new ReceiptParser();
+
+    @Param({"10", "100"})
+    private int items;
+
+    private String text;
+
+    // OCR-style noise around the items: a header, quantities, currency signs, a discount and payment lines
+    @Setup
+    public void receipt() {
+        StringBuilder receipt = new StringBuilder("JOE'S DINER\n123 MAIN ST\n03/02/2024 18:04\n");
+        long cents = 0;
+        for (int i = 0; i < items; i++) {
+            long price = 199 + 37L * i;
+            cents += price;
+            String amount = price / 100 + "." + String.format("%02d", price % 100);
+            receipt.append(i % 3 == 0 ? "2 " : "").append("ITEM ").append(i)
+                .append(i % 2 == 0 ? "  $ " : " ").append(amount).append(i % 5 == 0 ? " T" : "").append('\n');
+        }
+        receipt.append("COUPON -1.00\nSUBTOTAL ").append(cents / 100).append('.').append(String.format("%02d", cents % 100))
+            .append("\nTAX 4.20\nTIP 10.00\nTOTAL 99.99\nVISA 99.99\nCHANGE 0.00\nTHANK YOU\n");
+        text = receipt.toString();
+    }
+
+    @Benchmark
+    public ReceiptScanResponse parse() {
+        return parser.parse(text);
+    }
+}
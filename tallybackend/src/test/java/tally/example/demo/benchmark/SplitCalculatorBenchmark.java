@@ -0,0 +1,99 @@
+package tally.example.demo.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tally.example.demo.service.SplitCalculator;
+import tally.example.demo.service.SplitCalculator.Split;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitCalculatorBenchmark {
+    private static final int ITEMS = 50;
+    private static final long TAX_CENTS = 1_234;
+    private static final long TIP_CENTS = 2_000;
+
+    private final SplitCalculator calculator = new SplitCalculator();
+
+    @Param({"2", "10", "50"})
+    private int participants;
+
+    private long[] itemCents;
+    private int[] assignmentItem;
+    private int[] assignmentParticipant;
+    private double[] assignmentWeight;
+    private BigDecimal[] itemPrices;
+    private double[] assignmentFraction;
+
+    // Each item is shared by one to three people, in equal parts
+    @Setup
+    public void bill() {
+        SplittableRandom random = new SplittableRandom(7);
+        itemCents = new long[ITEMS];
+        itemPrices = new BigDecimal[ITEMS];
+        int[] sharers = new int[ITEMS];
+        int assignments = 0;
+        for (int item = 0; item < ITEMS; item++) {
+            itemCents[item] = 100 + random.nextInt(5_000);
+            itemPrices[item] = SplitCalculator.toAmount(itemCents[item]);
+            sharers[item] = 1 + random.nextInt(Math.min(3, participants));
+            assignments += sharers[item];
+        }
+        assignmentItem = new int[assignments];
+        assignmentParticipant = new int[assignments];
+        assignmentWeight = new double[assignments];
+        assignmentFraction = new double[assignments];
+        for (int item = 0, k = 0; item < ITEMS; item++) {
+            int first = random.nextInt(participants);
+            for (int s = 0; s < sharers[item]; s++, k++) {
+                assignmentItem[k] = item;
+                assignmentParticipant[k] = (first + s) % participants;
+                assignmentWeight[k] = 1;
+                assignmentFraction[k] = 1d / sharers[item];
+            }
+        }
+    }
+
+    @Benchmark
+    public Split largestRemainderCents() {
+        return calculator.split(itemCents, assignmentItem, assignmentParticipant, assignmentWeight,
+            participants, TAX_CENTS, TIP_CENTS, SplitCalculator.Mode.PROPORTIONAL);
+    }
+
+    // The arithmetic of the BigDecimal loop SplitCalculator replaced, without its DTOs
+    @Benchmark
+    public BigDecimal[] bigDecimalBaseline() {
+        BigDecimal[] totals = new BigDecimal[participants];
+        Arrays.fill(totals, BigDecimal.ZERO);
+        for (int k = 0; k < assignmentItem.length; k++) {
+            BigDecimal share = itemPrices[assignmentItem[k]].multiply(BigDecimal.valueOf(assignmentFraction[k]));
+            totals[assignmentParticipant[k]] = totals[assignmentParticipant[k]].add(share);
+        }
+        BigDecimal count = BigDecimal.valueOf(participants);
+        BigDecimal taxShare = SplitCalculator.toAmount(TAX_CENTS).divide(count, 2, RoundingMode.HALF_UP);
+        BigDecimal tipShare = SplitCalculator.toAmount(TIP_CENTS).divide(count, 2, RoundingMode.HALF_UP);
+        for (int i = 0; i < participants; i++) {
+            totals[i] = totals[i].add(taxShare).add(tipShare);
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,62 @@
+package tally.example.demo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+
+class QueryCountInterceptorTest {
+    private final QueryCountInspector inspector = new QueryCountInspector();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryCountInterceptor interceptor = new QueryCountInterceptor(inspector, registry);
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void recordsTheStatementsOfARequest() {
+        MockHttpServletRequest request = request();
+
+        interceptor.preHandle(request, response, null);
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(summary().count()).isEqualTo(1);
+        assertThat(summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void recordsAnAsyncRequestOnceWhenItHandsOff() {
+        MockHttpServletRequest request = request();
+
+        interceptor.preHandle(request, response, null);
+        inspector.inspect("select 1");
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        // Nothing is counted on this thread any more
+        inspector.inspect("select 2");
+        assertThat(inspector.stop()).isEqualTo(-1);
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, null);
+        inspector.inspect("select 3");
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(summary().count()).isEqualTo(1);
+        assertThat(summary().totalAmount()).isEqualTo(1);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bills/export");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/bills/export");
+        return request;
+    }
+
+    private DistributionSummary summary() {
+        return registry.get("tally.http.db.statements").tag("uri", "/api/bills/export").summary();
+    }
+}
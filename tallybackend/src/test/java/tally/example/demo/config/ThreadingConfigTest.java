@@ -0,0 +1,45 @@
+package tally.example.demo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+@SpringBootTest
+@ActiveProfiles({"test", "virtual"})
+@ExtendWith(OutputCaptureExtension.class)
+class ThreadingConfigTest {
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ThreadingConfig threadingConfig;
+
+    @Test
+    void virtualProfileFailsFastOnALargerPool() {
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(20);
+        assertThat(hikari.getConnectionTimeout()).isEqualTo(5000);
+    }
+
+    @Test
+    void reportsWhetherVirtualThreadsTookEffect(CapturedOutput output) {
+        threadingConfig.reportThreadingMode();
+
+        if (Runtime.version().feature() < 21) {
+            assertThat(output).contains("Virtual threads requested but running on Java");
+        } else {
+            assertThat(output).contains("run on virtual threads");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package tally.example.demo.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import tally.example.demo.model.User;
+import tally.example.demo.service.UserService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BalanceControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void settlementsForAUserWithNoDebtsAreEmpty() throws Exception {
+        User alice = newUser(userService, "alice");
+
+        mockMvc.perform(get("/api/balances/settlements").param("userId", alice.getId().toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.transfers").isEmpty());
+    }
+
+    @Test
+    void settlementsForAnUnknownUserAreNotFound() throws Exception {
+        mockMvc.perform(get("/api/balances/settlements").param("userId", Long.toString(Long.MAX_VALUE)))
+            .andExpect(status().isNotFound());
+    }
+}
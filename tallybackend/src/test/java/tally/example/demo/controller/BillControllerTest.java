@@ -0,0 +1,154 @@
+package tally.example.demo.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static tally.example.demo.service.TestBills.item;
+import static tally.example.demo.service.TestBills.request;
+import static tally.example.demo.service.TestBills.split;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tally.example.demo.dto.request.CreateBillRequest;
+import tally.example.demo.model.BillItem;
+import tally.example.demo.model.BillItemAssignment;
+import tally.example.demo.model.User;
+import tally.example.demo.repository.BillRepository;
+import tally.example.demo.service.BillService;
+import tally.example.demo.service.IdempotencyService;
+import tally.example.demo.service.UserService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BillControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BillService billService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void splittingAnInvalidAssignmentIsABadRequest() throws Exception {
+        User alice = newUser(userService, "alice");
+        CreateBillRequest request = request("Lunch", split(alice, "9.00"));
+        request.setItems(List.of(item("SOUP", "9.00")));
+        Long billId = billService.createBill(request, alice.getId()).getId();
+        // Nothing in the API writes a negative portion, so it is stored directly
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            BillItem soup = billRepository.findById(billId).orElseThrow().getItems().get(0);
+            BillItemAssignment assignment = new BillItemAssignment();
+            assignment.setBillItem(soup);
+            assignment.setUser(alice);
+            assignment.setPortion(-1.0);
+            soup.getAssignments().add(assignment);
+        });
+
+        mockMvc.perform(get("/api/bills/{id}/split", billId))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void splittingAnUnknownBillIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/bills/{id}/split", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void reusingAnIdempotencyKeyForAnotherBillIsUnprocessable() throws Exception {
+        User alice = newUser(userService, "alice");
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(createBill(alice, key, request("Lunch", split(alice, "9.00"))))
+            .andExpect(status().isOk());
+        mockMvc.perform(createBill(alice, key, request("Lunch", split(alice, "9.00"))))
+            .andExpect(status().isOk())
+            .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"));
+        mockMvc.perform(createBill(alice, key, request("Dinner", split(alice, "9.00"))))
+            .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void exportsAUsersBillsAsAnAttachment() throws Exception {
+        User alice = newUser(userService, "alice");
+        Long billId = billService.createBill(request("Brunch, late", split(alice, "9.00")), alice.getId()).getId();
+
+        MvcResult csv = mockMvc.perform(get("/api/bills/export")
+                .param("userId", alice.getId().toString())
+                .param("format", "CSV"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(csv))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"bills-" + alice.getId() + ".csv\""))
+            .andExpect(content().string(containsString(billId + ",\"Brunch, late\",")));
+
+        MvcResult ndjson = mockMvc.perform(get("/api/bills/export").param("userId", alice.getId().toString()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(content().string(startsWith("{\"id\":" + billId + ",\"name\":\"Brunch, late\"")));
+    }
+
+    @Test
+    void theFullDumpStreamsEveryBill() throws Exception {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        Long aliceBill = billService.createBill(request("Tea", split(alice, "2.00")), alice.getId()).getId();
+        Long bobBill = billService.createBill(request("Cake", split(bob, "3.00")), bob.getId()).getId();
+
+        MvcResult dump = mockMvc.perform(get("/api/bills/debug/all"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(dump))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bills-all.ndjson\""))
+            .andExpect(content().string(containsString("{\"id\":" + aliceBill + ",")))
+            .andExpect(content().string(containsString("{\"id\":" + bobBill + ",")));
+    }
+
+    private MockHttpServletRequestBuilder createBill(User user, String key, CreateBillRequest request) throws Exception {
+        return post("/api/bills")
+            .param("userId", user.getId().toString())
+            .header(IdempotencyService.KEY_HEADER, key)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request));
+    }
+}
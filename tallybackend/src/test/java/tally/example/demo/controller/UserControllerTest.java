@@ -0,0 +1,66 @@
+package tally.example.demo.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import tally.example.demo.model.User;
+import tally.example.demo.service.UserService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerTest {
+    private static final String UNKNOWN_USER = Long.toString(Long.MAX_VALUE);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void befriendingYourselfIsABadRequest() throws Exception {
+        User alice = newUser(userService, "alice");
+
+        mockMvc.perform(post("/api/users/me/friends")
+                .param("userId", alice.getId().toString())
+                .param("friendId", alice.getId().toString()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void friendsOfUnknownUsersAreNotFound() throws Exception {
+        User alice = newUser(userService, "alice");
+
+        mockMvc.perform(post("/api/users/me/friends")
+                .param("userId", alice.getId().toString())
+                .param("friendId", UNKNOWN_USER))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/friends/suggestions").param("userId", UNKNOWN_USER))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void statsForABackwardsRangeAreABadRequest() throws Exception {
+        User alice = newUser(userService, "alice");
+
+        mockMvc.perform(get("/api/users/me/stats")
+                .param("userId", alice.getId().toString())
+                .param("from", "2024-05")
+                .param("to", "2024-01"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unknownUsersAreNotFound() throws Exception {
+        mockMvc.perform(get("/api/users/me").param("userId", UNKNOWN_USER))
+            .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,52 @@
+package tally.example.demo.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class BillParticipantTest {
+
+    @Test
+    void unsavedParticipantsWithEqualAmountsStayDistinct() {
+        Set<BillParticipant> participants = new HashSet<>();
+        participants.add(participant(null, "6.00"));
+        participants.add(participant(null, "6.00"));
+
+        assertThat(participants).hasSize(2);
+    }
+
+    @Test
+    void participantIsFoundAfterItsIdIsAssignedAndItIsPaid() {
+        BillParticipant participant = participant(null, "6.00");
+        Set<BillParticipant> participants = new HashSet<>();
+        participants.add(participant);
+
+        participant.setId(42L);
+        participant.setPaid(true);
+        participant.setAmount(new BigDecimal("7.00"));
+
+        assertThat(participants.contains(participant)).isTrue();
+        assertThat(participants.remove(participant)).isTrue();
+    }
+
+    @Test
+    void participantsWithTheSameIdAreEqual() {
+        BillParticipant a = participant(7L, "1.00");
+        BillParticipant b = participant(7L, "2.00");
+
+        assertThat(a).isEqualTo(b);
+        assertThat(a.hashCode()).isEqualTo(b.hashCode());
+        assertThat(a).isNotEqualTo(participant(8L, "1.00"));
+    }
+
+    private static BillParticipant participant(Long id, String amount) {
+        BillParticipant participant = new BillParticipant();
+        participant.setId(id);
+        participant.setAmount(new BigDecimal(amount));
+        return participant;
+    }
+}
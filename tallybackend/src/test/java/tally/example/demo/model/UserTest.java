@@ -0,0 +1,41 @@
+package tally.example.demo.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class UserTest {
+
+    @Test
+    void renamedUserStaysInItsSet() {
+        User user = user(1L, "Alice", "alice@example.com");
+        Set<User> users = new HashSet<>();
+        users.add(user);
+
+        user.setName("Alicia");
+        user.setEmail("alicia@example.com");
+
+        assertThat(users.contains(user)).isTrue();
+    }
+
+    @Test
+    void usersWithTheSameIdAreEqualAndHashAlike() {
+        User a = user(1L, "Alice", "alice@example.com");
+        User b = user(1L, "Someone else", "other@example.com");
+
+        assertThat(a).isEqualTo(b);
+        assertThat(a.hashCode()).isEqualTo(b.hashCode());
+        assertThat(a).isNotEqualTo(user(2L, "Alice", "alice@example.com"));
+    }
+
+    private static User user(Long id, String name, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        return user;
+    }
+}
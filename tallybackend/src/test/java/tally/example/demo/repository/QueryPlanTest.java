@@ -0,0 +1,61 @@
+package tally.example.demo.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Asks H2 for the plans of the hot queries, written the way Hibernate renders
+ * them, and checks each one reads through the index the migrations add for it.
+ */
+@SpringBootTest
+class QueryPlanTest {
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void billListingUsesTheCreatorAndParticipantIndexes() {
+        // BillRepository.findPageForUser: BILL_IDS_FOR_USER under the keyset order
+        String plan = explain("SELECT b.id, b.name, b.created_at FROM bills b WHERE b.id IN ("
+            + "SELECT c.id FROM bills c WHERE c.creator_id = 1 "
+            + "UNION SELECT p.bill_id FROM bill_participants p WHERE p.user_id = 1) "
+            + "ORDER BY b.created_at DESC, b.id DESC");
+
+        assertThat(plan).contains("IDX_BILLS_CREATOR_CREATED: CREATOR_ID = ")
+            .contains("IDX_BILL_PARTICIPANTS_USER_PAID_BILL: USER_ID = ");
+    }
+
+    @Test
+    void settleUpLookupUsesTheParticipantIndexOnAllThreeColumns() {
+        // BillParticipantRepository.findUnpaid
+        String plan = explain("SELECT p.id FROM bill_participants p "
+            + "WHERE p.bill_id = 1 AND p.user_id = 2 AND p.paid = FALSE");
+
+        assertThat(plan).containsPattern("IDX_BILL_PARTICIPANTS_USER_PAID_BILL: [^*]*USER_ID = ")
+            .containsPattern("IDX_BILL_PARTICIPANTS_USER_PAID_BILL: [^*]*BILL_ID = ")
+            .containsPattern("IDX_BILL_PARTICIPANTS_USER_PAID_BILL: [^*]*PAID = FALSE");
+    }
+
+    @Test
+    void emailLookupUsesTheUniqueIndex() {
+        // UserRepository.findByEmail
+        String plan = explain("SELECT u.id FROM users u WHERE u.email = 'someone@example.com'");
+
+        assertThat(plan).contains("UX_USERS_EMAIL: EMAIL = ");
+    }
+
+    @Test
+    void ledgerReadsByCounterpartyUseTheirIndex() {
+        // The counterparty half of UserBalanceRepository.findOpenForUser
+        String plan = explain("SELECT b.user_id, b.amount FROM user_balances b WHERE b.counterparty_id = 1");
+
+        assertThat(plan).contains("IDX_USER_BALANCES_COUNTERPARTY: COUNTERPARTY_ID = ");
+    }
+
+    private String explain(String sql) {
+        return jdbc.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
@@ -0,0 +1,142 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static tally.example.demo.service.TestBills.request;
+import static tally.example.demo.service.TestBills.split;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import tally.example.demo.config.QueryCountInspector;
+import tally.example.demo.dto.ActivityEventDTO;
+import tally.example.demo.dto.ActivityPageDTO;
+import tally.example.demo.model.ActivityEvent;
+import tally.example.demo.model.Bill;
+import tally.example.demo.model.User;
+
+@SpringBootTest
+class ActivityServiceTest {
+    @Autowired
+    private ActivityService activityService;
+
+    @Autowired
+    private BillService billService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private QueryCountInspector queryCount;
+
+    @Test
+    void billChangesAreInEveryMembersFeedNewestFirst() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        Long billId = billService.createBill(request("Sushi", split(alice, "15.00"), split(bob, "10.00")), alice.getId()).getId();
+        billService.markParticipantAsPaid(billId, bob.getId());
+        billService.deleteBill(billId, alice.getId());
+
+        List<ActivityEventDTO> feed = activityService.getFeed(bob.getId(), null, 10).getEvents();
+
+        assertThat(feed).extracting(ActivityEventDTO::getType).containsExactly(
+            ActivityEvent.Type.BILL_DELETED, ActivityEvent.Type.BILL_PAID, ActivityEvent.Type.BILL_CREATED);
+        // Copied in when written, so the entries still read right once the bill is gone
+        assertThat(feed).extracting(ActivityEventDTO::getBillName).containsOnly("Sushi");
+        assertThat(feed).extracting(ActivityEventDTO::getAmount)
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactly(new BigDecimal("10.00"), new BigDecimal("10.00"), new BigDecimal("10.00"));
+        assertThat(feed.get(1).getActorName()).isEqualTo("bob");
+        assertThat(activityService.getFeed(alice.getId(), null, 10).getEvents().get(2).getAmount())
+            .isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    void bothEndsOfAFriendshipSeeItUnderCurrentNames() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        userService.addFriend(alice.getId(), bob.getId());
+
+        userService.updateUser(bob.getId(), bob.getEmail(), "Robert", null);
+
+        for (User user : List.of(alice, bob)) {
+            List<ActivityEventDTO> feed = activityService.getFeed(user.getId(), null, 10).getEvents();
+            assertThat(feed).hasSize(1);
+            assertThat(feed.get(0).getType()).isEqualTo(ActivityEvent.Type.FRIEND_ADDED);
+            assertThat(feed.get(0).getActorName()).isEqualTo("alice");
+            assertThat(feed.get(0).getOtherUserName()).isEqualTo("Robert");
+        }
+    }
+
+    @Test
+    void cursorPagesWalkTheFeedOnceWhileNewEventsArrive() {
+        User alice = newUser(userService, "alice");
+        List<User> friends = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            User friend = newUser(userService, "friend" + i);
+            friends.add(friend);
+            userService.addFriend(alice.getId(), friend.getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        ActivityPageDTO page = activityService.getFeed(alice.getId(), null, 3);
+        seen.addAll(page.getEvents().stream().map(ActivityEventDTO::getOtherUserId).toList());
+        // Lands above the cursor, so it must not shift the pages that follow
+        userService.addFriend(alice.getId(), newUser(userService, "late").getId());
+        while (page.getNextCursor() != null) {
+            page = activityService.getFeed(alice.getId(), page.getNextCursor(), 3);
+            seen.addAll(page.getEvents().stream().map(ActivityEventDTO::getOtherUserId).toList());
+        }
+
+        List<Long> newestFirst = new ArrayList<>(friends.stream().map(User::getId).toList());
+        Collections.reverse(newestFirst);
+        assertThat(seen).containsExactlyElementsOf(newestFirst);
+    }
+
+    @Test
+    void theNewestPageIsTwoStatementsWhateverTheHistory() {
+        User alice = newUser(userService, "alice");
+        for (int i = 0; i < 40; i++) {
+            userService.addFriend(alice.getId(), newUser(userService, "friend" + i).getId());
+        }
+
+        queryCount.start();
+        ActivityPageDTO page = activityService.getFeed(alice.getId(), null, 10);
+        int statements = queryCount.stop();
+
+        // The page of events, then the names of everyone they mention
+        assertThat(statements).isEqualTo(2);
+        assertThat(page.getEvents()).hasSize(10);
+        assertThat(page.getNextCursor()).isNotNull();
+    }
+
+    @Test
+    void writesOnlyJoinAnExistingTransaction() {
+        User alice = newUser(userService, "alice");
+        Bill bill = new Bill();
+        bill.setName("Orphan");
+
+        assertThatThrownBy(() -> activityService.recordBill(ActivityEvent.Type.BILL_CREATED, bill, alice.getId(),
+                Set.of(alice.getId()), recipient -> null))
+            .isInstanceOf(IllegalTransactionStateException.class);
+        assertThatThrownBy(() -> activityService.recordFriendAdded(alice.getId(), alice.getId()))
+            .isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(activityService.getFeed(alice.getId(), null, 10).getEvents()).isEmpty();
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> activityService.getFeed(1L, "not a cursor", 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid cursor");
+    }
+}
@@ -0,0 +1,111 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tally.example.demo.service.TestBills.request;
+import static tally.example.demo.service.TestBills.split;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import tally.example.demo.dto.BalanceDTO;
+import tally.example.demo.dto.BalanceSummaryDTO;
+import tally.example.demo.dto.request.CreateBillRequest;
+import tally.example.demo.model.User;
+
+@SpringBootTest
+class BalanceLedgerServiceTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BillService billService;
+
+    @Autowired
+    private BalanceLedgerService ledgerService;
+
+    @Test
+    void concurrentFirstBillsForAPairAllLand() throws Exception {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> bills = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                CreateBillRequest request = request("Coffee " + i, split(alice, "2.00"), split(bob, "1.00"));
+                Callable<Object> create = () -> {
+                    start.await();
+                    return billService.createBill(request, alice.getId());
+                };
+                bills.add(pool.submit(create));
+            }
+            start.countDown();
+            for (Future<?> bill : bills) {
+                // Rethrows a duplicate-key failure from any racing first write
+                bill.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        BigDecimal owed = new BigDecimal(THREADS);
+        BalanceSummaryDTO forAlice = ledgerService.getBalances(alice.getId());
+        assertThat(forAlice.getBalances()).singleElement()
+            .satisfies(balance -> {
+                assertThat(balance.getCounterpartyId()).isEqualTo(bob.getId());
+                assertThat(balance.getAmount()).isEqualByComparingTo(owed);
+            });
+        assertThat(forAlice.getOwed()).isEqualByComparingTo(owed);
+        assertThat(forAlice.getOwes()).isEqualByComparingTo("0");
+
+        BalanceSummaryDTO forBob = ledgerService.getBalances(bob.getId());
+        assertThat(forBob.getBalances()).extracting(BalanceDTO::getAmount)
+            .singleElement().satisfies(amount -> assertThat(amount).isEqualByComparingTo(owed.negate()));
+        assertThat(forBob.getOwes()).isEqualByComparingTo(owed);
+    }
+
+    @Test
+    void deletingTheOnlyBillClearsThePair() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        Long billId = billService.createBill(request("Taxi", split(alice, "5.00"), split(bob, "5.00")), alice.getId())
+            .getId();
+
+        billService.deleteBill(billId, alice.getId());
+
+        assertThat(ledgerService.getBalances(alice.getId()).getBalances()).isEmpty();
+        assertThat(ledgerService.getTotals(bob.getId()).getOwes()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void mergingACreatorMovesWhatTheirBillsAreOwed() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        User carol = newUser(userService, "carol");
+        Long billId = billService.createBill(request("Dinner", split(alice, "7.00"), split(bob, "5.00")), alice.getId())
+            .getId();
+
+        billService.updateCreatorId(alice.getId(), carol.getId());
+        billService.markParticipantAsPaid(billId, bob.getId());
+
+        assertThat(ledgerService.checkDrift().getDriftedPairs()).isZero();
+        assertThat(ledgerService.getBalances(bob.getId()).getBalances()).isEmpty();
+        // Alice's own share is now owed to Carol
+        assertThat(ledgerService.getTotals(alice.getId()).getOwes()).isEqualByComparingTo("7.00");
+        assertThat(ledgerService.getTotals(carol.getId()).getOwed()).isEqualByComparingTo("7.00");
+    }
+}
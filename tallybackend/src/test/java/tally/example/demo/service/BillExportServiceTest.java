@@ -0,0 +1,171 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tally.example.demo.service.TestBills.item;
+import static tally.example.demo.service.TestBills.request;
+import static tally.example.demo.service.TestBills.split;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tally.example.demo.config.QueryCountInspector;
+import tally.example.demo.dto.BillDTO;
+import tally.example.demo.dto.BillImportResultDTO;
+import tally.example.demo.dto.request.CreateBillRequest;
+import tally.example.demo.model.User;
+
+@SpringBootTest
+class BillExportServiceTest {
+    private static final String AWKWARD_NAME = "Dinner, \"Joe's\"";
+
+    @Autowired
+    private BillExportService exportService;
+
+    @Autowired
+    private BillImportService importService;
+
+    @Autowired
+    private BillService billService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private QueryCountInspector queryCount;
+
+    @Test
+    void ndjsonIsOneBillPerLineOldestFirst() throws IOException {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        List<BillDTO> bills = createBills(alice, bob);
+        billService.createBill(request("Bob alone", split(bob, "4.00")), bob.getId());
+
+        String[] lines = export(alice, BillExportService.Format.NDJSON).split("\n");
+
+        assertThat(lines).hasSize(2);
+        BillDTO first = objectMapper.readValue(lines[0], BillDTO.class);
+        assertThat(first.getId()).isEqualTo(bills.get(0).getId());
+        assertThat(first.getName()).isEqualTo(AWKWARD_NAME);
+        assertThat(first.getItems()).extracting(item -> item.getName()).containsExactly("FISH, CHIPS", "TEA");
+        assertThat(first.getParticipants()).extracting(participant -> participant.getUserId())
+            .containsExactlyInAnyOrder(alice.getId(), bob.getId());
+        assertThat(objectMapper.readValue(lines[1], BillDTO.class).getId()).isEqualTo(bills.get(1).getId());
+    }
+
+    @Test
+    void csvQuotesCommasAndQuotesInNames() throws IOException {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        List<BillDTO> bills = createBills(alice, bob);
+
+        String[] lines = export(alice, BillExportService.Format.CSV).split("\n");
+
+        assertThat(lines[0]).isEqualTo("ref,name,payerId,tax,tip,itemName,itemPrice,itemQuantity,"
+            + "splitUserId,splitAmount,splitPaid,creatorId,createdAt");
+        // One line per item/participant pair, so each bill takes two
+        assertThat(lines).hasSize(5);
+        assertThat(lines[1]).startsWith(bills.get(0).getId() + ",\"Dinner, \"\"Joe's\"\"\",,1.50,2.00,\"FISH, CHIPS\",6.00,2,");
+        assertThat(lines[2]).startsWith(bills.get(0).getId() + ",\"Dinner, \"\"Joe's\"\"\",,1.50,2.00,TEA,3.00,1,");
+        assertThat(lines[3]).startsWith(bills.get(1).getId() + ",Taxi,,0.00,0.00,,,,");
+    }
+
+    @Test
+    void aCsvExportImportsBackAsTheSameBills() throws IOException {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        List<BillDTO> originals = createBills(alice, bob);
+        Set<Long> originalIds = originals.stream().map(BillDTO::getId).collect(Collectors.toSet());
+
+        byte[] csv = export(alice, BillExportService.Format.CSV).getBytes(StandardCharsets.UTF_8);
+        BillImportResultDTO result = importService.importCsv(new ByteArrayInputStream(csv), alice.getId(), 10);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).isEmpty();
+        List<BillDTO> imported = billService.getUserBills(alice.getId(), null, 10).getBills().stream()
+            .filter(bill -> !originalIds.contains(bill.getId()))
+            .sorted(Comparator.comparing(BillDTO::getCreatedAt).thenComparing(BillDTO::getId))
+            .toList();
+        assertThat(imported).usingRecursiveFieldByFieldElementComparatorIgnoringFields(
+                "id", "items.id", "participants.id")
+            .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+            .containsExactlyElementsOf(originals);
+    }
+
+    @Test
+    void streamsInsideAReadOnlyTransactionAPageOfChildrenPerBlock() throws IOException {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        createBills(alice, bob);
+        TransactionCheckingStream out = new TransactionCheckingStream();
+
+        queryCount.start();
+        exportService.export(alice.getId(), BillExportService.Format.NDJSON, out);
+        int statements = queryCount.stop();
+
+        assertThat(out.writes).isPositive();
+        assertThat(out.outsideReadOnlyTransaction).isZero();
+        // The header scan, then the items and the participants of the one block; never a findAll of entities
+        assertThat(statements).isEqualTo(3);
+    }
+
+    // Created oldest first: the two-item bill with awkward names, then a plain taxi
+    private List<BillDTO> createBills(User alice, User bob) {
+        CreateBillRequest dinner = request(AWKWARD_NAME, split(alice, "10.00"), split(bob, "7.50"));
+        dinner.setTax(new BigDecimal("1.50"));
+        dinner.setTip(new BigDecimal("2.00"));
+        CreateBillRequest.BillItemRequest fishAndChips = item("FISH, CHIPS", "6.00");
+        fishAndChips.setQuantity(2);
+        dinner.setItems(List.of(fishAndChips, item("TEA", "3.00")));
+        BillDTO first = billService.createBill(dinner, alice.getId());
+        BillDTO second = billService.createBill(request("Taxi", split(alice, "6.00"), split(bob, "6.00")), alice.getId());
+        return List.of(billService.getBill(first.getId()), billService.getBill(second.getId()));
+    }
+
+    private String export(User user, BillExportService.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(user.getId(), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static class TransactionCheckingStream extends OutputStream {
+        int writes;
+        int outsideReadOnlyTransaction;
+
+        @Override
+        public void write(int b) {
+            check();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            check();
+        }
+
+        private void check() {
+            writes++;
+            if (!TransactionSynchronizationManager.isActualTransactionActive()
+                    || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                outsideReadOnlyTransaction++;
+            }
+        }
+    }
+}
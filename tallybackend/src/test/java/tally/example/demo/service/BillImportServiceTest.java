@@ -0,0 +1,94 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import tally.example.demo.dto.BillDTO;
+import tally.example.demo.dto.BillImportResultDTO;
+import tally.example.demo.dto.UserStatsDTO;
+import tally.example.demo.model.User;
+
+@SpringBootTest
+class BillImportServiceTest {
+    private static final LocalDateTime MARCH = LocalDateTime.of(2024, 3, 15, 12, 30);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BillImportService importService;
+
+    @Autowired
+    private BillService billService;
+
+    @Autowired
+    private UserStatsService statsService;
+
+    @Test
+    void jsonImportKeepsTheSourceDateAndCountsItInThatMonth() throws IOException {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        String json = "[{\"name\": \"Dinner\", \"creatorId\": " + alice.getId() + ", \"createdAt\": \"" + MARCH + "\","
+            + " \"splits\": [{\"userId\": " + alice.getId() + ", \"amount\": 12.00},"
+            + " {\"userId\": " + bob.getId() + ", \"amount\": 8.00}]}]";
+
+        BillImportResultDTO result = importService.importJson(stream(json), alice.getId(), 10);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        BillDTO bill = billService.getUserBills(alice.getId(), null, 1).getBills().get(0);
+        assertThat(bill.getCreatedAt()).isEqualTo(MARCH);
+        assertThat(bill.getCreatorId()).isEqualTo(alice.getId());
+
+        UserStatsDTO march = statsService.getStats(bob.getId(), YearMonth.of(2024, 3), YearMonth.of(2024, 3));
+        assertThat(march.getBillCount()).isEqualTo(1);
+        assertThat(march.getSpent()).isEqualByComparingTo("8.00");
+        assertThat(statsService.getStats(bob.getId(), null, null).getBillCount()).isZero();
+    }
+
+    @Test
+    void csvImportKeepsTheSourceDate() throws IOException {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        String csv = "ref,name,splitUserId,splitAmount,creatorId,createdAt\n"
+            + "7,Taxi," + alice.getId() + ",5.00," + alice.getId() + "," + MARCH + "\n"
+            + "7,Taxi," + bob.getId() + ",5.00,,\n";
+
+        BillImportResultDTO result = importService.importCsv(stream(csv), alice.getId(), 10);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        BillDTO bill = billService.getUserBills(bob.getId(), null, 1).getBills().get(0);
+        assertThat(bill.getCreatedAt()).isEqualTo(MARCH);
+        assertThat(bill.getParticipants()).hasSize(2);
+    }
+
+    @Test
+    void rejectsBillsCreatedBySomeoneElseOrInTheFuture() throws IOException {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        String split = "\"splits\": [{\"userId\": " + bob.getId() + ", \"amount\": 3.00}]";
+        String json = "[{\"name\": \"Forged\", \"creatorId\": " + bob.getId() + ", " + split + "},"
+            + " {\"name\": \"Later\", \"createdAt\": \"" + LocalDateTime.now().plusDays(2) + "\", " + split + "}]";
+
+        BillImportResultDTO result = importService.importJson(stream(json), alice.getId(), 10);
+
+        assertThat(result.getImported()).isZero();
+        assertThat(result.getErrors()).extracting(BillImportResultDTO.RowError::getError).containsExactly(
+            "creatorId must be the importing user", "createdAt must not be in the future");
+        assertThat(billService.getUserBills(bob.getId(), null, 1).getBills()).isEmpty();
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
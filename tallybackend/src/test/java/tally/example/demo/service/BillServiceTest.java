@@ -0,0 +1,289 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static tally.example.demo.service.TestBills.item;
+import static tally.example.demo.service.TestBills.request;
+import static tally.example.demo.service.TestBills.split;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+import tally.example.demo.config.QueryCountInspector;
+import tally.example.demo.dto.BillDTO;
+import tally.example.demo.dto.BillItemDTO;
+import tally.example.demo.dto.BillPageDTO;
+import tally.example.demo.dto.BillParticipantDTO;
+import tally.example.demo.dto.request.CreateBillRequest;
+import tally.example.demo.model.BillSplit;
+import tally.example.demo.model.User;
+import tally.example.demo.repository.BillRepository;
+
+@SpringBootTest
+class BillServiceTest {
+    private static final int SETTLING_USERS = 100;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BillService billService;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private QueryCountInspector queryCount;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BalanceLedgerService ledgerService;
+
+    @Autowired
+    private ConflictRetrier conflictRetrier;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void createBillKeepsEqualAmountSplits() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+
+        BillDTO created = billService.createBill(
+            request("Lunch", split(alice, "6.00"), split(bob, "6.00")), alice.getId());
+
+        BillDTO stored = billService.getBill(created.getId());
+        assertThat(stored.getParticipants()).hasSize(2);
+        assertThat(stored.getParticipants()).extracting(BillParticipantDTO::getUserId)
+            .containsExactlyInAnyOrder(alice.getId(), bob.getId());
+        assertThat(stored.getParticipants()).extracting(BillParticipantDTO::getAmount)
+            .allMatch(amount -> amount.compareTo(new BigDecimal("6.00")) == 0);
+    }
+
+    @Test
+    void createBillRunsNoCountQueries() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        billService.createBill(request("Brunch", split(alice, "9.00"), split(bob, "9.00")), alice.getId());
+
+        assertThat(statistics.getQueries()).noneMatch(query -> query.toLowerCase().contains("count("));
+    }
+
+    @Test
+    void createBillRoundTripsDoNotGrowWithTheParticipants() {
+        // The first bill of a run also fills the id pools
+        statementsBeyondTheLedger(2);
+        int pair = statementsBeyondTheLedger(2);
+
+        for (int participants : new int[] {10, 50}) {
+            // Give or take an id pool refill on the sequences the new rows draw from
+            assertThat(statementsBeyondTheLedger(participants)).isBetween(pair - 3, pair + 3);
+        }
+    }
+
+    @Test
+    void createBillRejectsUnknownSplitUsersWithoutSavingAnything() {
+        User alice = newUser(userService, "alice");
+        long before = billRepository.count();
+
+        BillSplit unknown = new BillSplit();
+        unknown.setUserId(Long.MAX_VALUE);
+        unknown.setAmount(new BigDecimal("5.00"));
+
+        assertThatThrownBy(() -> billService.createBill(request("Ghost", split(alice, "5.00"), unknown), alice.getId()))
+            .hasMessageContaining("User not found: " + Long.MAX_VALUE);
+        assertThat(billRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    void getBillLoadsItemsOncePerBillInTwoStatements() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        User carol = newUser(userService, "carol");
+        CreateBillRequest request = request("Dinner", split(alice, "10.00"), split(bob, "10.00"), split(carol, "10.00"));
+        request.setItems(List.of(item("PIZZA", "18.00"), item("SALAD", "12.00")));
+        Long billId = billService.createBill(request, alice.getId()).getId();
+
+        queryCount.start();
+        BillDTO bill = billService.getBill(billId);
+        int statements = queryCount.stop();
+
+        // The bill with its participants and their users, then the items
+        assertThat(statements).isEqualTo(2);
+        assertThat(bill.getParticipants()).hasSize(3);
+        assertThat(bill.getItems()).extracting(BillItemDTO::getName).containsExactlyInAnyOrder("PIZZA", "SALAD");
+    }
+
+    @Test
+    void getUserBillsPagesNewestFirstInThreeStatementsPerPage() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            CreateBillRequest request = request("Bill " + i, split(alice, "4.00"), split(bob, "6.00"));
+            request.setItems(List.of(item("ITEM " + i, "10.00")));
+            ids.add(billService.createBill(request, alice.getId()).getId());
+        }
+        Collections.reverse(ids);
+
+        queryCount.start();
+        BillPageDTO first = billService.getUserBills(bob.getId(), null, 3);
+        int statements = queryCount.stop();
+        BillPageDTO second = billService.getUserBills(bob.getId(), first.getNextCursor(), 3);
+
+        // Headers, then the items and the participants of the whole page
+        assertThat(statements).isEqualTo(3);
+        assertThat(first.getBills()).extracting(BillDTO::getId).containsExactlyElementsOf(ids.subList(0, 3));
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(second.getBills()).extracting(BillDTO::getId).containsExactlyElementsOf(ids.subList(3, 5));
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void listingLoadsNoEntities() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        for (int i = 0; i < 20; i++) {
+            CreateBillRequest request = request("Bill " + i, split(alice, "4.00"), split(bob, "6.00"));
+            request.setItems(List.of(item("ITEM " + i, "10.00")));
+            billService.createBill(request, alice.getId());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BillPageDTO page = billService.getUserBills(alice.getId(), null, 20);
+
+        // Rows go straight into DTOs, so there is nothing to snapshot or dirty-check
+        assertThat(page.getBills()).hasSize(20);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void listingRowsMatchTheDetailRead() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        CreateBillRequest request = request("Groceries", split(alice, "7.25"), split(bob, "7.25"));
+        request.setPayerId(bob.getId());
+        request.setItems(List.of(item("MILK", "4.50"), item("BREAD", "10.00")));
+        Long billId = billService.createBill(request, alice.getId()).getId();
+
+        BillDTO listed = billService.getUserBills(alice.getId(), null, 1).getBills().get(0);
+        BillDTO detail = billService.getBill(billId);
+
+        assertThat(listed).usingRecursiveComparison()
+            .ignoringCollectionOrder()
+            .ignoringFields("items.assignedUserIds")
+            .isEqualTo(detail);
+    }
+
+    @Test
+    void paymentShowsInTheCachedSummaryWithoutBumpingTheBill() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        Long billId = billService.createBill(request("Cab", split(alice, "7.00"), split(bob, "7.00")), alice.getId()).getId();
+        assertThat(billService.getBillSummary(billId).getPaidStatus()).containsEntry(bob.getId().toString(), false);
+        Long version = billRepository.findById(billId).orElseThrow().getVersion();
+
+        billService.markParticipantAsPaid(billId, bob.getId());
+
+        assertThat(billService.getBillSummary(billId).getPaidStatus()).containsEntry(bob.getId().toString(), true);
+        assertThat(billRepository.findById(billId).orElseThrow().getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void concurrentSettleUpLosesNoPayments() throws Exception {
+        User alice = newUser(userService, "alice");
+        List<User> debtors = new ArrayList<>();
+        List<BillSplit> splits = new ArrayList<>();
+        splits.add(split(alice, "1.00"));
+        for (int i = 0; i < SETTLING_USERS; i++) {
+            User debtor = newUser(userService, "debtor" + i);
+            debtors.add(debtor);
+            splits.add(split(debtor, "1.00"));
+        }
+        Long billId = billService.createBill(request("Party", splits.toArray(BillSplit[]::new)), alice.getId()).getId();
+        assertThat(ledgerService.getTotals(alice.getId()).getOwed()).isEqualByComparingTo("100.00");
+        double retriesBefore = meterRegistry.counter("tally.concurrency.retries").count();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(SETTLING_USERS);
+        try {
+            List<Future<?>> payments = new ArrayList<>();
+            for (User debtor : debtors) {
+                payments.add(pool.submit(() -> {
+                    start.await();
+                    // Same entry point as POST /api/bills/{id}/pay
+                    conflictRetrier.run("Marking bill " + billId + " paid",
+                        () -> billService.markParticipantAsPaid(billId, debtor.getId()));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> payment : payments) {
+                payment.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        BillDTO bill = billService.getBill(billId);
+        assertThat(bill.getParticipants()).filteredOn(p -> !p.getUserId().equals(alice.getId()))
+            .extracting(BillParticipantDTO::getPaid).containsOnly(true);
+        assertThat(ledgerService.getTotals(alice.getId()).getOwed()).isEqualByComparingTo("0");
+        assertThat(ledgerService.getBalances(alice.getId()).getBalances()).isEmpty();
+        for (User debtor : debtors) {
+            assertThat(ledgerService.getTotals(debtor.getId()).getOwes()).isEqualByComparingTo("0");
+        }
+        // Payments touch only their own participant row, so conflicts stay rare
+        double retries = meterRegistry.counter("tally.concurrency.retries").count() - retriesBefore;
+        assertThat(retries).isLessThanOrEqualTo(SETTLING_USERS / 10);
+    }
+
+    // Creates a bill split between new users and returns the statements it took, less the ledger's one balance
+    // read per debtor
+    private int statementsBeyondTheLedger(int participants) {
+        List<BillSplit> splits = new ArrayList<>();
+        for (int i = 0; i < participants; i++) {
+            splits.add(split(newUser(userService, "member" + i), "1.00"));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        queryCount.start();
+        billService.createBill(request("Round", splits.toArray(BillSplit[]::new)), splits.get(0).getUserId());
+        int statements = queryCount.stop();
+
+        // Every split user comes back from a single IN query
+        long userQueries = Arrays.stream(statistics.getQueries())
+            .filter(query -> query.contains(" from users "))
+            .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionCount())
+            .sum();
+        assertThat(userQueries).isEqualTo(1);
+        return statements - (participants - 1);
+    }
+}
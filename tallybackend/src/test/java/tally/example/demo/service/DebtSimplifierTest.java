@@ -0,0 +1,171 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import tally.example.demo.service.DebtSimplifier.Transfer;
+
+class DebtSimplifierTest {
+    private final DebtSimplifier simplifier = new DebtSimplifier();
+
+    @Test
+    void findsTheMinimumWhereGreedyMatchingDoesNot() {
+        long[] members = {1, 2, 3, 4, 5};
+        long[] net = {500, 400, -400, -300, -200};
+
+        List<Transfer> transfers = simplifier.simplify(members, net);
+
+        // Largest-first matching needs four; {2 -> 3} plus {1 <- 4, 5} needs three
+        assertThat(transfers).hasSize(3);
+        assertSettles(members, net, transfers);
+    }
+
+    @Test
+    void matchesBruteForceMinimumOnRandomGroups() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            int n = 2 + random.nextInt(7);
+            long[] members = new long[n];
+            long[] net = new long[n];
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                members[i] = 10 + i;
+                if (i < n - 1) {
+                    // Small amounts so zero-sum subgroups actually occur
+                    net[i] = random.nextInt(9) - 4;
+                    sum += net[i];
+                }
+            }
+            net[n - 1] = -sum;
+
+            List<Transfer> transfers = simplifier.simplify(members, net);
+
+            assertThat(transfers).as("net %s", Arrays.toString(net)).hasSize(minimumTransfers(net));
+            assertSettles(members, net, transfers);
+        }
+    }
+
+    @Test
+    void largeGroupsFallBackToAtMostOneTransferPerMemberButOne() {
+        Random random = new Random(7);
+        int n = DebtSimplifier.EXACT_LIMIT + 20;
+        long[] members = new long[n];
+        long[] net = new long[n];
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            members[i] = i + 1;
+            if (i < n - 1) {
+                net[i] = random.nextInt(20_001) - 10_000;
+                sum += net[i];
+            }
+        }
+        net[n - 1] = -sum;
+        assertThat(simplifier.isExact(n)).isFalse();
+
+        List<Transfer> transfers = simplifier.simplify(members, net);
+
+        assertThat(transfers.size()).isLessThanOrEqualTo(n - 1);
+        assertSettles(members, net, transfers);
+    }
+
+    @Test
+    void settledAndEmptyGroupsNeedNoTransfers() {
+        assertThat(simplifier.simplify(new long[0], new long[0])).isEmpty();
+        assertThat(simplifier.simplify(new long[] {1, 2, 3}, new long[] {0, 0, 0})).isEmpty();
+    }
+
+    @Test
+    void aSingleDebtIsOneTransfer() {
+        List<Transfer> transfers = simplifier.simplify(new long[] {7, 9}, new long[] {-1250, 1250});
+
+        assertThat(transfers).containsExactly(new Transfer(7, 9, 1250));
+    }
+
+    @Test
+    void rejectsBalancesThatDoNotSumToZero() {
+        assertThatThrownBy(() -> simplifier.simplify(new long[] {1, 2}, new long[] {100, -99}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("sum to zero");
+    }
+
+    @Test
+    void rejectsMismatchedAndOutOfRangeInput() {
+        assertThatThrownBy(() -> simplifier.simplify(new long[] {1, 2}, new long[] {0}))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> simplifier.simplify(new long[] {1, 2}, new long[] {Long.MAX_VALUE / 2, -Long.MAX_VALUE / 2}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("out of range");
+    }
+
+    @Test
+    void netBalancesIgnoresOutsidersAndSelfDebts() {
+        long[] members = {1, 2, 3};
+        long[] net = simplifier.netBalances(members,
+            new long[] {1, 2, 1, 99, 3},
+            new long[] {2, 3, 1, 2, 99},
+            new long[] {500, 200, 700, 1000, 1000});
+
+        assertThat(net).containsExactly(-500, 300, 200);
+    }
+
+    // Applying the transfers must bring every balance to zero, in positive amounts only
+    private static void assertSettles(long[] members, long[] net, List<Transfer> transfers) {
+        long[] left = net.clone();
+        for (Transfer transfer : transfers) {
+            assertThat(transfer.getCents()).isPositive();
+            left[Arrays.binarySearch(members, transfer.getFromUserId())] += transfer.getCents();
+            left[Arrays.binarySearch(members, transfer.getToUserId())] -= transfer.getCents();
+        }
+        assertThat(left).containsOnly(0L);
+    }
+
+    // Open members minus the most disjoint zero-sum groups they split into, by exhaustive search
+    private static int minimumTransfers(long[] net) {
+        int open = 0;
+        long[] nonZero = new long[net.length];
+        for (long amount : net) {
+            if (amount != 0) {
+                nonZero[open++] = amount;
+            }
+        }
+        int[] memo = new int[1 << open];
+        Arrays.fill(memo, -1);
+        return open - mostGroups(Arrays.copyOf(nonZero, open), (1 << open) - 1, memo);
+    }
+
+    private static int mostGroups(long[] net, int remaining, int[] memo) {
+        if (remaining == 0) {
+            return 0;
+        }
+        if (memo[remaining] >= 0) {
+            return memo[remaining];
+        }
+        int lowest = Integer.lowestOneBit(remaining);
+        int others = remaining & ~lowest;
+        int most = 0;
+        // Every group containing the lowest remaining member, tried as the next zero-sum group
+        for (int sub = others; ; sub = (sub - 1) & others) {
+            int group = sub | lowest;
+            long sum = 0;
+            for (int i = 0; i < net.length; i++) {
+                if ((group & (1 << i)) != 0) {
+                    sum += net[i];
+                }
+            }
+            if (sum == 0) {
+                most = Math.max(most, 1 + mostGroups(net, remaining & ~group, memo));
+            }
+            if (sub == 0) {
+                break;
+            }
+        }
+        memo[remaining] = most;
+        return most;
+    }
+}
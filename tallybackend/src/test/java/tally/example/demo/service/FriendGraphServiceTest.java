@@ -0,0 +1,137 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import tally.example.demo.config.QueryCountInspector;
+import tally.example.demo.dto.FriendSuggestionDTO;
+import tally.example.demo.model.User;
+
+@SpringBootTest
+class FriendGraphServiceTest {
+    @Autowired
+    private FriendGraphService friendGraph;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private QueryCountInspector queryCount;
+
+    @Test
+    void edgesAreDirectedAndWrittenOnce() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+
+        assertThat(friendGraph.addFriend(alice.getId(), bob.getId())).isTrue();
+        assertThat(friendGraph.addFriend(alice.getId(), bob.getId())).isFalse();
+
+        assertThat(friendGraph.friendIds(alice.getId())).containsExactly(bob.getId());
+        assertThat(friendGraph.friendIds(bob.getId())).isEmpty();
+        assertThat(friendGraph.removeFriend(bob.getId(), alice.getId())).isFalse();
+        assertThat(friendGraph.removeFriend(alice.getId(), bob.getId())).isTrue();
+        assertThat(friendGraph.friendIds(alice.getId())).isEmpty();
+    }
+
+    @Test
+    void writesPatchTheCachedListWithoutReloadingIt() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        User carol = newUser(userService, "carol");
+        friendGraph.addFriend(alice.getId(), carol.getId());
+        friendGraph.friendIds(alice.getId());
+
+        friendGraph.addFriend(alice.getId(), bob.getId());
+        queryCount.start();
+        long[] friends = friendGraph.friendIds(alice.getId());
+        int statements = queryCount.stop();
+
+        assertThat(statements).isZero();
+        assertThat(friends).containsExactly(bob.getId(), carol.getId());
+    }
+
+    @Test
+    void suggestsFriendsOfFriendsByMutualCountThenId() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        User carol = newUser(userService, "carol");
+        User dave = newUser(userService, "dave");
+        User erin = newUser(userService, "erin");
+        User frank = newUser(userService, "frank");
+        friendGraph.addFriend(alice.getId(), bob.getId());
+        friendGraph.addFriend(alice.getId(), carol.getId());
+        // Frank is a friend of both, Dave and Erin of one each; Carol is already Alice's friend
+        friendGraph.addFriend(bob.getId(), frank.getId());
+        friendGraph.addFriend(carol.getId(), frank.getId());
+        friendGraph.addFriend(bob.getId(), erin.getId());
+        friendGraph.addFriend(carol.getId(), dave.getId());
+        friendGraph.addFriend(bob.getId(), carol.getId());
+        friendGraph.addFriend(bob.getId(), alice.getId());
+
+        List<FriendSuggestionDTO> suggestions = friendGraph.suggestFriends(alice.getId(), 10);
+
+        assertThat(suggestions).extracting(FriendSuggestionDTO::getUserId)
+            .containsExactly(frank.getId(), dave.getId(), erin.getId());
+        assertThat(suggestions).extracting(FriendSuggestionDTO::getMutualFriends).containsExactly(2, 1, 1);
+        assertThat(friendGraph.suggestFriends(alice.getId(), 1)).extracting(FriendSuggestionDTO::getUserId)
+            .containsExactly(frank.getId());
+    }
+
+    @Test
+    void deactivatedAccountsAreNotSuggested() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        User carol = newUser(userService, "carol");
+        User dave = newUser(userService, "dave");
+        friendGraph.addFriend(alice.getId(), bob.getId());
+        friendGraph.addFriend(bob.getId(), carol.getId());
+        friendGraph.addFriend(bob.getId(), dave.getId());
+
+        userService.deactivateAccount(carol.getId());
+
+        assertThat(friendGraph.suggestFriends(alice.getId(), 10)).extracting(FriendSuggestionDTO::getUserId)
+            .containsExactly(dave.getId());
+    }
+
+    @Test
+    void countsStayExactWhenCandidatesOutgrowTheCounter() {
+        User alice = newUser(userService, "alice");
+        List<User> friends = List.of(newUser(userService, "bob"), newUser(userService, "carol"), newUser(userService, "dave"));
+        List<User> candidates = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            candidates.add(newUser(userService, "candidate" + i));
+        }
+        for (User friend : friends) {
+            friendGraph.addFriend(alice.getId(), friend.getId());
+        }
+        // Candidate i is known to i % 3 + 1 of Alice's friends
+        for (int i = 0; i < candidates.size(); i++) {
+            for (int f = 0; f <= i % 3; f++) {
+                friendGraph.addFriend(friends.get(f).getId(), candidates.get(i).getId());
+            }
+        }
+
+        List<FriendSuggestionDTO> suggestions = friendGraph.suggestFriends(alice.getId(), FriendGraphService.MAX_SUGGESTIONS);
+
+        assertThat(suggestions).hasSize(FriendGraphService.MAX_SUGGESTIONS);
+        Map<Long, Integer> mutual = new HashMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            mutual.put(candidates.get(i).getId(), i % 3 + 1);
+        }
+        assertThat(suggestions).allSatisfy(suggestion ->
+            assertThat(suggestion.getMutualFriends()).isEqualTo(mutual.get(suggestion.getUserId())));
+        // 66 candidates share all three friends, then the lowest ids of those sharing two
+        assertThat(suggestions.get(65).getMutualFriends()).isEqualTo(3);
+        assertThat(suggestions.get(66).getMutualFriends()).isEqualTo(2);
+        assertThat(suggestions.get(66).getUserId()).isEqualTo(candidates.get(1).getId());
+    }
+}
@@ -0,0 +1,134 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static tally.example.demo.service.TestBills.request;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tally.example.demo.exception.InvalidIdempotencyKeyException;
+
+class IdempotencyServiceTest {
+    private static final long WAIT_MILLIS = 5_000;
+
+    private final IdempotencyService idempotency = new IdempotencyService(new SimpleMeterRegistry(), new ObjectMapper());
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void replaysACompletedResponse() {
+        ResponseEntity<String> first = idempotency.execute("bills.create", 1L, "key", request("Lunch"), this::created);
+        // An equal request built separately is the same request
+        ResponseEntity<String> retry = idempotency.execute("bills.create", 1L, "key", request("Lunch"), this::created);
+
+        assertThat(runs).hasValue(1);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void aDuplicateJoinsTheAttemptInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(() ->
+            idempotency.execute("bills.pay", 1L, "key", 7L, () -> {
+                started.countDown();
+                await(release);
+                return created();
+            }));
+        assertThat(started.await(WAIT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+
+        CompletableFuture<ResponseEntity<String>> duplicate = new CompletableFuture<>();
+        Thread retry = new Thread(() -> duplicate.complete(idempotency.execute("bills.pay", 1L, "key", 7L, this::created)));
+        retry.start();
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (retry.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(first.get(WAIT_MILLIS, TimeUnit.MILLISECONDS).getBody()).isEqualTo("bill 1");
+        assertThat(duplicate.get(WAIT_MILLIS, TimeUnit.MILLISECONDS).getBody()).isEqualTo("bill 1");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void rejectsTheSameKeyForADifferentRequest() {
+        idempotency.execute("bills.create", 1L, "key", request("Lunch"), this::created);
+
+        assertThatThrownBy(() -> idempotency.execute("bills.create", 1L, "key", request("Dinner"), this::created))
+            .isInstanceOf(InvalidIdempotencyKeyException.class);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void keysAreScopedPerEndpointAndUser() {
+        idempotency.execute("bills.pay", 1L, "key", 7L, this::created);
+        idempotency.execute("bills.pay", 2L, "key", 7L, this::created);
+        idempotency.execute("bills.create", 1L, "key", 7L, this::created);
+
+        assertThat(runs).hasValue(3);
+    }
+
+    @Test
+    void releasesTheKeyAfterAFailedResponse() {
+        ResponseEntity<String> conflict = idempotency.execute("bills.pay", 1L, "key", 7L, () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("busy");
+        });
+        ResponseEntity<String> retry = idempotency.execute("bills.pay", 1L, "key", 7L, this::created);
+
+        assertThat(conflict.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void releasesTheKeyAfterAnException() {
+        assertThatThrownBy(() -> idempotency.execute("bills.pay", 1L, "key", 7L, () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        ResponseEntity<String> retry = idempotency.execute("bills.pay", 1L, "key", 7L, this::created);
+
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void rejectsOverlongKeysAndRunsKeylessRequestsEveryTime() {
+        assertThatThrownBy(() -> idempotency.execute("bills.pay", 1L, "k".repeat(256), 7L, this::created))
+            .isInstanceOf(InvalidIdempotencyKeyException.class);
+
+        idempotency.execute("bills.pay", 1L, null, 7L, this::created);
+        idempotency.execute("bills.pay", 1L, " ", 7L, this::created);
+
+        assertThat(runs).hasValue(2);
+    }
+
+    private ResponseEntity<String> created() {
+        return ResponseEntity.status(HttpStatus.CREATED).body("bill " + runs.incrementAndGet());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
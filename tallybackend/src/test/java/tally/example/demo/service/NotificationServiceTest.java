@@ -0,0 +1,138 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static tally.example.demo.service.TestBills.request;
+import static tally.example.demo.service.TestBills.split;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import tally.example.demo.controller.NotificationController;
+import tally.example.demo.dto.BillEventDTO;
+import tally.example.demo.model.User;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class NotificationServiceTest {
+    private static final long WAIT_MILLIS = 5_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private BillService billService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void billChangesReachEveryoneOnTheBillAndNoOneElse() throws Exception {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        User carol = newUser(userService, "carol");
+        MvcResult bobStream = open(bob);
+        MvcResult carolStream = open(carol);
+
+        Long billId = billService.createBill(request("Pizza", split(alice, "8.00"), split(bob, "8.00")), alice.getId()).getId();
+        billService.markParticipantAsPaid(billId, bob.getId());
+        billService.deleteBill(billId, alice.getId());
+
+        String events = await(bobStream, body -> body.contains("\"DELETED\""));
+        assertThat(events).contains("event:" + NotificationService.BILL_EVENT)
+            .contains("\"type\":\"CREATED\",\"billId\":" + billId)
+            .contains("\"type\":\"PAID\",\"billId\":" + billId)
+            .contains("\"changes\":{\"userId\":" + bob.getId() + ",\"paid\":true}");
+        assertThat(events.indexOf("\"CREATED\"")).isLessThan(events.indexOf("\"PAID\""));
+        assertThat(carolStream.getResponse().getContentAsString()).doesNotContain("billId");
+    }
+
+    @Test
+    void rolledBackWritesPushNothing() throws Exception {
+        User alice = newUser(userService, "alice");
+        MvcResult stream = open(alice);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(event(alice, -1L));
+            status.setRollbackOnly();
+        });
+        transaction.executeWithoutResult(status -> eventPublisher.publishEvent(event(alice, -2L)));
+
+        String events = await(stream, body -> body.contains("\"billId\":-2"));
+        assertThat(events).doesNotContain("\"billId\":-1");
+    }
+
+    @Test
+    void unknownUsersCannotOpenAStream() throws Exception {
+        mockMvc.perform(get(NotificationController.STREAM_PATH).param("userId", Long.toString(Long.MAX_VALUE)))
+            .andExpect(result -> assertThat(result.getResponse().getStatus()).isEqualTo(404));
+    }
+
+    @Test
+    void aUserKeepsOnlyTheNewestStreams() {
+        User alice = newUser(userService, "alice");
+        double before = meterRegistry.get("tally.notifications.streams").gauge().value();
+
+        List<SseEmitter> emitters = List.of(
+            notificationService.subscribe(alice.getId()), notificationService.subscribe(alice.getId()),
+            notificationService.subscribe(alice.getId()), notificationService.subscribe(alice.getId()),
+            notificationService.subscribe(alice.getId()), notificationService.subscribe(alice.getId()));
+
+        assertThat(emitters).doesNotHaveDuplicates();
+        assertThat(meterRegistry.get("tally.notifications.streams").gauge().value()).isEqualTo(before + 5);
+    }
+
+    private MvcResult open(User user) throws Exception {
+        MvcResult stream = mockMvc.perform(get(NotificationController.STREAM_PATH).param("userId", user.getId().toString()))
+            .andExpect(opened -> assertThat(opened.getRequest().isAsyncStarted()).isTrue())
+            .andReturn();
+        await(stream, body -> body.contains(":connected"));
+        return stream;
+    }
+
+    // Events are written by the sender pool, so the stream is read until it shows what the test waits for
+    private static String await(MvcResult stream, Predicate<String> done) throws Exception {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        String body = stream.getResponse().getContentAsString();
+        while (!done.test(body) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            body = stream.getResponse().getContentAsString();
+        }
+        assertThat(body).matches(done);
+        return body;
+    }
+
+    private static BillChangedEvent event(User recipient, Long billId) {
+        return new BillChangedEvent(Set.of(recipient.getId()),
+            new BillEventDTO(BillEventDTO.Type.CREATED, billId, 0L, recipient.getId(), Map.of()));
+    }
+}
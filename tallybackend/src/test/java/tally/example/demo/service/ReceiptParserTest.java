@@ -0,0 +1,125 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import tally.example.demo.dto.request.CreateBillRequest.BillItemRequest;
+import tally.example.demo.dto.response.ReceiptScanResponse;
+
+class ReceiptParserTest {
+    private final ReceiptParser parser = new ReceiptParser();
+
+    @Test
+    void parsesItemsTaxTipAndTotals() {
+        ReceiptScanResponse response = parser.parse(String.join("\n",
+            "JOE'S DINER",
+            "BURGER 12.50",
+            "fries  $ 3.99 T",
+            "SUBTOTAL 16.49",
+            "TAX 1.32",
+            "TIP 3.00",
+            "TOTAL 20.81",
+            "VISA 20.81",
+            "CHANGE 0.00"));
+
+        assertThat(response.getItems()).extracting(BillItemRequest::getName).containsExactly("BURGER", "FRIES");
+        assertThat(response.getItems()).extracting(BillItemRequest::getPrice)
+            .containsExactly(new BigDecimal("12.50"), new BigDecimal("3.99"));
+        assertThat(response.getTax()).isEqualByComparingTo("1.32");
+        assertThat(response.getTip()).isEqualByComparingTo("3.00");
+        assertThat(response.getSubtotal()).isEqualByComparingTo("16.49");
+        assertThat(response.getTotal()).isEqualByComparingTo("20.81");
+    }
+
+    @Test
+    void splitsLineTotalsByLeadingQuantity() {
+        ReceiptScanResponse response = parser.parse("2 COFFEE 7.00\n3 BAGEL 10.00");
+
+        BillItemRequest coffee = response.getItems().get(0);
+        assertThat(coffee.getName()).isEqualTo("COFFEE");
+        assertThat(coffee.getQuantity()).isEqualTo(2);
+        assertThat(coffee.getPrice()).isEqualByComparingTo("3.50");
+        // 10.00 doesn't divide into three cents-exact units, so it stays one line
+        BillItemRequest bagel = response.getItems().get(1);
+        assertThat(bagel.getQuantity()).isEqualTo(1);
+        assertThat(bagel.getPrice()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void mergesRepeatedItemsAtTheSamePrice() {
+        ReceiptScanResponse response = parser.parse("SODA 2.00\nSODA 2.00\nSODA 2.50");
+
+        assertThat(response.getItems()).hasSize(2);
+        assertThat(response.getItems().get(0).getQuantity()).isEqualTo(2);
+        assertThat(response.getSubtotal()).isEqualByComparingTo("6.50");
+    }
+
+    @Test
+    void readsCommaBeforeADotAsAThousandsSeparator() {
+        ReceiptScanResponse response = parser.parse("LAPTOP 1,234.56\nSERVER 123,456.78\nTOTAL 1,234.56");
+
+        assertThat(response.getItems()).extracting(BillItemRequest::getPrice)
+            .containsExactly(new BigDecimal("1234.56"), new BigDecimal("123456.78"));
+        assertThat(response.getTotal()).isEqualByComparingTo("1234.56");
+    }
+
+    @Test
+    void stillReadsALoneCommaAsADecimalSeparator() {
+        ReceiptScanResponse response = parser.parse("KAFFEE 3,99");
+
+        assertThat(response.getItems().get(0).getPrice()).isEqualByComparingTo("3.99");
+    }
+
+    @Test
+    void keepsTheSignOfDiscountLines() {
+        ReceiptScanResponse response = parser.parse(String.join("\n",
+            "PIZZA 20.00",
+            "COUPON -2.00",
+            "MEMBER $-1.50",
+            "PROMO 0.50-",
+            "DISCOUNT 3.00"));
+
+        assertThat(response.getItems()).extracting(BillItemRequest::getName)
+            .containsExactly("PIZZA", "COUPON", "MEMBER", "PROMO", "DISCOUNT");
+        assertThat(response.getItems()).extracting(BillItemRequest::getPrice).containsExactly(
+            new BigDecimal("20.00"), new BigDecimal("-2.00"), new BigDecimal("-1.50"),
+            new BigDecimal("-0.50"), new BigDecimal("-3.00"));
+        assertThat(response.getSubtotal()).isEqualByComparingTo("13.00");
+        assertThat(response.getTotal()).isEqualByComparingTo("13.00");
+    }
+
+    @Test
+    void readsASpacedDashAsASeparatorNotASign() {
+        ReceiptScanResponse response = parser.parse(String.join("\n",
+            "COFFEE - 4.50",
+            "MUFFIN -  $3.25",
+            "REFUND -$1.00",
+            "COUPON - 0.75"));
+
+        assertThat(response.getItems()).extracting(BillItemRequest::getName)
+            .containsExactly("COFFEE", "MUFFIN", "REFUND", "COUPON");
+        assertThat(response.getItems()).extracting(BillItemRequest::getPrice).containsExactly(
+            new BigDecimal("4.50"), new BigDecimal("3.25"), new BigDecimal("-1.00"), new BigDecimal("-0.75"));
+        assertThat(response.getTotal()).isEqualByComparingTo("6.00");
+    }
+
+    @Test
+    void keepsHyphensInsideItemNames() {
+        ReceiptScanResponse response = parser.parse("T-BONE 24.00\nITEM-2 3.00");
+
+        assertThat(response.getItems()).extracting(BillItemRequest::getName).containsExactly("T-BONE", "ITEM-2");
+        assertThat(response.getItems()).extracting(BillItemRequest::getPrice)
+            .containsExactly(new BigDecimal("24.00"), new BigDecimal("3.00"));
+    }
+
+    @Test
+    void ignoresLinesWithoutAPrice() {
+        ReceiptScanResponse response = parser.parse("THANK YOU\nTABLE 12\n\n");
+
+        assertThat(response.getItems()).isEmpty();
+        assertThat(response.getTotal()).isEqualByComparingTo("0.00");
+    }
+}
@@ -0,0 +1,151 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import tally.example.demo.dto.response.ReceiptScanJobResponse;
+import tally.example.demo.dto.response.ReceiptScanJobResponse.Status;
+import tally.example.demo.dto.response.ReceiptScanResponse;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReceiptScanJobServiceTest {
+    @Autowired
+    private ReceiptScanJobService jobService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Stands in for the OCR pipeline, whose pools and engine ReceiptScanServiceTest covers
+    @MockBean
+    private ReceiptScanService scanService;
+
+    @Test
+    void theSameImageJoinsOneJobAndIsServedFromTheCache() {
+        byte[] image = image();
+        CompletableFuture<ReceiptScanResponse> scan = new CompletableFuture<>();
+        when(scanService.scan(aryEq(image))).thenReturn(scan);
+        long hitsBefore = hits();
+
+        ReceiptScanJobResponse first = jobService.submit(image);
+        ReceiptScanJobResponse duplicate = jobService.submit(image.clone());
+
+        assertThat(duplicate.getJobId()).isEqualTo(first.getJobId());
+        assertThat(duplicate.getStatus()).isEqualTo(Status.PENDING);
+        scan.complete(result("8.50"));
+        ReceiptScanJobResponse later = jobService.submit(image);
+
+        assertThat(later.getStatus()).isEqualTo(Status.DONE);
+        assertThat(later.getResult().getTotal()).isEqualByComparingTo("8.50");
+        assertThat(jobService.getJob(first.getJobId())).get().extracting(ReceiptScanJobResponse::getStatus)
+            .isEqualTo(Status.DONE);
+        verify(scanService, times(1)).scan(aryEq(image));
+        assertThat(hits() - hitsBefore).isEqualTo(2);
+    }
+
+    @Test
+    void failedScansKeepTheirReasonAndRunAgainOnResubmit() {
+        byte[] image = image();
+        when(scanService.scan(aryEq(image))).thenReturn(CompletableFuture.failedFuture(
+            new CompletionException(new IllegalArgumentException("Unsupported receipt image format"))));
+
+        ReceiptScanJobResponse failed = jobService.submit(image);
+
+        assertThat(failed.getStatus()).isEqualTo(Status.FAILED);
+        assertThat(failed.getError()).isEqualTo("Unsupported receipt image format");
+        assertThat(jobService.getJob(failed.getJobId())).get().extracting(ReceiptScanJobResponse::getStatus)
+            .isEqualTo(Status.FAILED);
+
+        when(scanService.scan(aryEq(image))).thenReturn(CompletableFuture.completedFuture(result("2.00")));
+        assertThat(jobService.submit(image).getStatus()).isEqualTo(Status.DONE);
+        verify(scanService, times(2)).scan(aryEq(image));
+    }
+
+    @Test
+    void aScanTheWorkersTurnedAwayIsBusyAndAnswers429() throws Exception {
+        byte[] image = image();
+        when(scanService.scan(aryEq(image))).thenReturn(CompletableFuture.failedFuture(
+            new CompletionException(new RejectedExecutionException("queue full"))));
+
+        String jobId = jobService.submit(image).getJobId();
+
+        assertThat(jobService.getJob(jobId)).get().extracting(ReceiptScanJobResponse::getStatus)
+            .isEqualTo(Status.BUSY);
+        mockMvc.perform(get("/api/bills/scan/{jobId}", jobId))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(jsonPath("$.status").value("BUSY"));
+        mockMvc.perform(multipart("/api/bills/scan").file(upload(image)))
+            .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void aSaturatedPipelineRefusesTheUploadWith429() throws Exception {
+        byte[] image = image();
+        when(scanService.scan(aryEq(image))).thenThrow(new RejectedExecutionException("queue full"));
+
+        mockMvc.perform(multipart("/api/bills/scan").file(upload(image)))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(jsonPath("$.error").value("Receipt scanner is busy, please retry shortly"));
+    }
+
+    @Test
+    void uploadsAreAcceptedAndPolledUntilDone() throws Exception {
+        byte[] image = image();
+        CompletableFuture<ReceiptScanResponse> scan = new CompletableFuture<>();
+        when(scanService.scan(aryEq(image))).thenReturn(scan);
+
+        String body = mockMvc.perform(multipart("/api/bills/scan").file(upload(image)))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.status").value("PENDING"))
+            .andReturn().getResponse().getContentAsString();
+        String jobId = body.replaceAll(".*\"jobId\":\"([0-9a-f]+)\".*", "$1");
+        scan.complete(result("4.00"));
+
+        mockMvc.perform(get("/api/bills/scan/{jobId}", jobId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("DONE"));
+        mockMvc.perform(get("/api/bills/scan/{jobId}", "0".repeat(64)))
+            .andExpect(status().isNotFound());
+    }
+
+    private long hits() {
+        return ((Number) jobService.getStats().get("hitCount")).longValue();
+    }
+
+    // Distinct bytes per test: the job cache is shared by the whole context
+    private static byte[] image() {
+        return UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static MockMultipartFile upload(byte[] image) {
+        return new MockMultipartFile("file", "receipt.png", "image/png", image);
+    }
+
+    private static ReceiptScanResponse result(String total) {
+        ReceiptScanResponse response = new ReceiptScanResponse();
+        response.setTotal(new BigDecimal(total));
+        return response;
+    }
+}
@@ -0,0 +1,149 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.tess4j.ITesseract;
+import net.sourceforge.tess4j.TesseractException;
+import tally.example.demo.config.TesseractProperties;
+import tally.example.demo.dto.request.CreateBillRequest.BillItemRequest;
+import tally.example.demo.dto.response.ReceiptScanResponse;
+
+class ReceiptScanServiceTest {
+    private static final long WAIT_MILLIS = 5_000;
+
+    private final ITesseract engine = mock(ITesseract.class);
+    private ReceiptScanService scanner;
+
+    @AfterEach
+    void shutDown() {
+        if (scanner != null) {
+            scanner.shutdown();
+        }
+    }
+
+    @Test
+    void recognizesAndParsesTheImage() throws Exception {
+        when(engine.doOCR(any(BufferedImage.class))).thenReturn("BAGEL 3.50\nTAX 0.30\nTOTAL 3.80");
+        scanner = scanner(1, 1, 4);
+
+        ReceiptScanResponse response = scanner.scan(image()).get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+
+        assertThat(response.getItems()).extracting(BillItemRequest::getName).containsExactly("BAGEL");
+        assertThat(response.getTax()).isEqualByComparingTo("0.30");
+        assertThat(response.getTotal()).isEqualByComparingTo("3.80");
+    }
+
+    @Test
+    void turnsWorkAwayOnceTheRecognitionQueueIsFull() throws Exception {
+        CountDownLatch recognizing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(engine.doOCR(any(BufferedImage.class))).thenAnswer(invocation -> {
+            recognizing.countDown();
+            release.await(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            return "TEA 2.00";
+        });
+        scanner = scanner(1, 1, 1);
+        byte[] image = image();
+
+        CompletableFuture<ReceiptScanResponse> running = scanner.scan(image);
+        assertThat(recognizing.await(WAIT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        // The second image takes the one queue slot, so the third finds no room once it is preprocessed
+        CompletableFuture<ReceiptScanResponse> queued = scanner.scan(image);
+        CompletableFuture<ReceiptScanResponse> rejected = scanWhenPreprocessIsFree(image);
+
+        assertThatThrownBy(() -> rejected.get(WAIT_MILLIS, TimeUnit.MILLISECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(queued).isNotDone();
+        release.countDown();
+        for (CompletableFuture<ReceiptScanResponse> scan : List.of(running, queued)) {
+            assertThat(scan.get(WAIT_MILLIS, TimeUnit.MILLISECONDS).getItems()).hasSize(1);
+        }
+    }
+
+    @Test
+    void aSaturatedPreprocessStageRejectsTheSubmission() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(engine.doOCR(any(BufferedImage.class))).thenAnswer(invocation -> {
+            release.await(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            return "TEA 2.00";
+        });
+        scanner = scanner(1, 1, 1);
+        // Large enough that decoding and deskewing it outlasts a few submissions
+        byte[] image = image(1200, 1600);
+
+        // Keep submitting until both stages and their queues are full and the submission itself is refused
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 100; i++) {
+                scanner.scan(image);
+            }
+        }).isInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+    }
+
+    @Test
+    void recognitionErrorsFailTheScan() throws Exception {
+        when(engine.doOCR(any(BufferedImage.class))).thenThrow(new TesseractException("no language data"));
+        scanner = scanner(1, 1, 4);
+
+        assertThatThrownBy(() -> scanner.scan(image()).get(WAIT_MILLIS, TimeUnit.MILLISECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasRootCauseInstanceOf(TesseractException.class);
+        assertThatThrownBy(() -> scanner.scan(new byte[] {1, 2, 3}).get(WAIT_MILLIS, TimeUnit.MILLISECONDS))
+            .hasCauseInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Unsupported receipt image format");
+    }
+
+    // Until the second image has moved on, the preprocess stage itself may still turn the third away
+    private CompletableFuture<ReceiptScanResponse> scanWhenPreprocessIsFree(byte[] image) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (true) {
+            try {
+                return scanner.scan(image);
+            } catch (RejectedExecutionException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    private ReceiptScanService scanner(int workers, int preprocessWorkers, int queueCapacity) {
+        TesseractProperties properties = new TesseractProperties();
+        properties.setWorkers(workers);
+        properties.setPreprocessWorkers(preprocessWorkers);
+        properties.setQueueCapacity(queueCapacity);
+        return new ReceiptScanService(properties, new ReceiptParser(), () -> engine);
+    }
+
+    static byte[] image() throws IOException {
+        return image(64, 32);
+    }
+
+    private static byte[] image(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,159 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import tally.example.demo.service.SplitCalculator.Mode;
+import tally.example.demo.service.SplitCalculator.Split;
+
+class SplitCalculatorTest {
+    private static final int ROUNDS = 2_000;
+
+    private final SplitCalculator calculator = new SplitCalculator();
+
+    @Test
+    void allocatedCentsAlwaysSumToTheTotal() {
+        Random random = new Random(1);
+        for (int round = 0; round < ROUNDS; round++) {
+            int n = 1 + random.nextInt(12);
+            long total = random.nextLong(-1_000_000, 1_000_000);
+            long[] weights = randomWeights(random, n);
+            long[] out = new long[n];
+
+            SplitCalculator.allocate(total, weights.clone(), n, out, new long[n]);
+
+            assertThat(Arrays.stream(out).sum()).as("total %d, weights %s", total, Arrays.toString(weights))
+                .isEqualTo(total);
+        }
+    }
+
+    @Test
+    void everyShareIsWithinOneCentOfItsExactValue() {
+        Random random = new Random(2);
+        for (int round = 0; round < ROUNDS; round++) {
+            int n = 1 + random.nextInt(12);
+            long total = random.nextLong(0, 1_000_000);
+            long[] weights = randomWeights(random, n);
+            long[] out = new long[n];
+
+            SplitCalculator.allocate(total, weights.clone(), n, out, new long[n]);
+
+            long weightSum = Arrays.stream(weights).sum();
+            for (int i = 0; i < n; i++) {
+                long weight = weightSum == 0 ? 1 : weights[i];
+                long sum = weightSum == 0 ? n : weightSum;
+                // |out - total * weight / sum| < 1, compared without rounding
+                BigInteger exact = BigInteger.valueOf(total).multiply(BigInteger.valueOf(weight));
+                BigInteger given = BigInteger.valueOf(out[i]).multiply(BigInteger.valueOf(sum));
+                assertThat(given.subtract(exact).abs()).as("share %d of %s", i, Arrays.toString(weights))
+                    .isLessThan(BigInteger.valueOf(sum));
+            }
+        }
+    }
+
+    @Test
+    void sameInputGivesTheSameSplit() {
+        Random random = new Random(3);
+        for (int round = 0; round < ROUNDS; round++) {
+            int n = 1 + random.nextInt(12);
+            long total = random.nextLong(-100_000, 100_000);
+            long[] weights = randomWeights(random, n);
+            long[] first = new long[n];
+            long[] second = new long[n];
+
+            SplitCalculator.allocate(total, weights.clone(), n, first, new long[n]);
+            SplitCalculator.allocate(total, weights.clone(), n, second, new long[n]);
+
+            assertThat(second).isEqualTo(first);
+        }
+    }
+
+    @Test
+    void leftoverCentsGoToTheLowestIndexOnTies() {
+        long[] out = new long[3];
+
+        SplitCalculator.allocate(100, new long[] {1, 1, 1}, 3, out, new long[3]);
+
+        assertThat(out).containsExactly(34, 33, 33);
+    }
+
+    @Test
+    void negativeWeightsCountAsZero() {
+        long[] out = new long[3];
+
+        SplitCalculator.allocate(1000, new long[] {-500, 300, 100}, 3, out, new long[3]);
+
+        assertThat(out).containsExactly(0, 750, 250);
+    }
+
+    @Test
+    void proportionalTaxSkipsAParticipantWhoseItemsNetToACredit() {
+        // Alice has a 20.00 item, Bob only a 5.00 coupon
+        Split split = calculator.split(new long[] {2000, -500}, new int[] {0, 1}, new int[] {0, 1},
+            new double[] {1, 1}, 2, 150, 0, Mode.PROPORTIONAL);
+
+        assertThat(split.getSubtotal()).containsExactly(2000, -500);
+        assertThat(split.getTax()).containsExactly(150, 0);
+    }
+
+    @Test
+    void splitTotalsAddUpToTheBill() {
+        Random random = new Random(4);
+        for (int round = 0; round < ROUNDS / 10; round++) {
+            int participants = 1 + random.nextInt(6);
+            int items = random.nextInt(6);
+            long[] itemCents = new long[items];
+            int[] assignmentItem = new int[items * participants];
+            int[] assignmentParticipant = new int[items * participants];
+            double[] portion = new double[items * participants];
+            int k = 0;
+            for (int item = 0; item < items; item++) {
+                itemCents[item] = random.nextInt(10_000);
+                for (int p = 0; p < participants; p++) {
+                    // Some items go to everyone by having no assignments at all
+                    if (random.nextInt(3) > 0) {
+                        assignmentItem[k] = item;
+                        assignmentParticipant[k] = p;
+                        portion[k] = random.nextInt(4) * 0.5;
+                        k++;
+                    }
+                }
+            }
+            long tax = random.nextInt(1_000);
+            long tip = random.nextInt(1_000);
+            Mode mode = random.nextBoolean() ? Mode.EQUAL : Mode.PROPORTIONAL;
+
+            Split split = calculator.split(itemCents, Arrays.copyOf(assignmentItem, k),
+                Arrays.copyOf(assignmentParticipant, k), Arrays.copyOf(portion, k), participants, tax, tip, mode);
+
+            long charged = 0;
+            for (int p = 0; p < participants; p++) {
+                charged += split.total(p);
+            }
+            assertThat(charged).isEqualTo(Arrays.stream(itemCents).sum() + tax + tip);
+        }
+    }
+
+    @Test
+    void rejectsInvalidPortions() {
+        assertThatThrownBy(() -> calculator.split(new long[] {100}, new int[] {0}, new int[] {0},
+                new double[] {Double.NaN}, 1, 0, 0, Mode.EQUAL))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid portion");
+    }
+
+    // Mostly small weights so ties and zero weights come up often
+    private static long[] randomWeights(Random random, int n) {
+        long[] weights = new long[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = random.nextInt(4) == 0 ? random.nextInt(3_000_000) : random.nextInt(4);
+        }
+        return weights;
+    }
+}
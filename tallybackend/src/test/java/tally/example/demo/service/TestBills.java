@@ -0,0 +1,37 @@
+package tally.example.demo.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import tally.example.demo.dto.request.CreateBillRequest;
+import tally.example.demo.model.BillSplit;
+import tally.example.demo.model.User;
+
+// Bill requests for tests, without tax or tip unless a test sets them
+public final class TestBills {
+    private TestBills() {
+    }
+
+    public static CreateBillRequest request(String name, BillSplit... splits) {
+        CreateBillRequest request = new CreateBillRequest();
+        request.setName(name);
+        request.setTax(BigDecimal.ZERO);
+        request.setTip(BigDecimal.ZERO);
+        request.setSplits(List.of(splits));
+        return request;
+    }
+
+    public static BillSplit split(User user, String amount) {
+        BillSplit split = new BillSplit();
+        split.setUserId(user.getId());
+        split.setAmount(new BigDecimal(amount));
+        return split;
+    }
+
+    public static CreateBillRequest.BillItemRequest item(String name, String price) {
+        CreateBillRequest.BillItemRequest item = new CreateBillRequest.BillItemRequest();
+        item.setName(name);
+        item.setPrice(new BigDecimal(price));
+        return item;
+    }
+}
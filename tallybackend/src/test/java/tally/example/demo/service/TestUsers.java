@@ -0,0 +1,15 @@
+package tally.example.demo.service;
+
+import java.util.UUID;
+
+import tally.example.demo.model.User;
+
+// Users for tests sharing one context and database: every address is unique, so no test sees another's users
+public final class TestUsers {
+    private TestUsers() {
+    }
+
+    public static User newUser(UserService userService, String name) {
+        return userService.createUser(UUID.randomUUID() + "@example.com", name);
+    }
+}
@@ -0,0 +1,124 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import tally.example.demo.dto.UserDTO;
+import tally.example.demo.model.User;
+
+@SpringBootTest
+class UserSearchServiceTest {
+    @Autowired
+    private UserSearchService searchService;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void awaitIndex() throws InterruptedException {
+        // The index is built in the background once the context is ready
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!searchService.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(searchService.isReady()).isTrue();
+    }
+
+    @Test
+    void findsUsersByNamePrefixIgnoringCaseAndAccents() {
+        String surname = uniqueWord();
+        User jose = newUser(userService, "José " + surname);
+        User other = newUser(userService, "Ana " + surname);
+
+        assertThat(ids(search(surname.substring(0, 8).toUpperCase()))).containsExactlyInAnyOrder(jose.getId(), other.getId());
+        assertThat(ids(search("jose " + surname))).containsExactly(jose.getId());
+    }
+
+    @Test
+    void everyWordOfTheQueryMustMatch() {
+        String surname = uniqueWord();
+        User smith = newUser(userService, "Ana " + surname + " Smith");
+        newUser(userService, "Ana " + surname + " Jones");
+
+        assertThat(ids(search("an " + surname + " smi"))).containsExactly(smith.getId());
+    }
+
+    @Test
+    void wholeWordsRankAheadOfPrefixes() {
+        String word = uniqueWord();
+        User longer = newUser(userService, "Bea " + word + "son");
+        User exact = newUser(userService, "Zed " + word);
+
+        assertThat(ids(search(word))).containsExactly(exact.getId(), longer.getId());
+    }
+
+    @Test
+    void matchesWholeAddressesAndTheirLocalParts() {
+        String word = uniqueWord();
+        User byName = newUser(userService, "Aaron " + word);
+        User byEmail = userService.createUser(word + "@example.com", "Zoe");
+
+        assertThat(ids(search(word + "@example.com"))).containsExactly(byEmail.getId());
+        assertThat(ids(search(word))).containsExactly(byName.getId(), byEmail.getId());
+    }
+
+    @Test
+    void toleratesASingleTypo() {
+        String surname = uniqueWord();
+        User user = newUser(userService, "Ruth " + surname);
+        String typo = surname.charAt(1) + "" + surname.charAt(0) + surname.substring(2);
+
+        assertThat(ids(search(typo))).containsExactly(user.getId());
+        assertThat(ids(search("q" + surname.substring(1)))).containsExactly(user.getId());
+    }
+
+    @Test
+    void followsRenamesAndDeactivation() {
+        String before = uniqueWord();
+        String after = uniqueWord();
+        User user = newUser(userService, "Kim " + before);
+
+        userService.updateUser(user.getId(), user.getEmail(), "Kim " + after, null);
+
+        assertThat(search(before)).isEmpty();
+        assertThat(ids(search(after))).containsExactly(user.getId());
+
+        userService.deactivateAccount(user.getId());
+        assertThat(search(after)).isEmpty();
+
+        userService.reactivateAccount(user.getId());
+        assertThat(ids(search(after))).containsExactly(user.getId());
+    }
+
+    @Test
+    void blankQueriesAndLimitsReturnNothing() {
+        assertThat(search("  ")).isEmpty();
+        assertThat(searchService.search(null, 10)).isEmpty();
+        assertThat(searchService.search("kim", 0)).isEmpty();
+    }
+
+    private List<UserDTO> search(String query) {
+        return searchService.search(query, UserSearchService.MAX_RESULTS);
+    }
+
+    private static List<Long> ids(List<UserDTO> users) {
+        return users.stream().map(UserDTO::getId).toList();
+    }
+
+    // Letters only, so it is one token and shares no prefix with other tests' users
+    private static String uniqueWord() {
+        StringBuilder word = new StringBuilder("w");
+        for (char c : UUID.randomUUID().toString().replace("-", "").substring(0, 10).toCharArray()) {
+            word.append((char) ('a' + Character.digit(c, 16)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import tally.example.demo.config.CacheConfig;
+import tally.example.demo.config.QueryCountInspector;
+import tally.example.demo.dto.UserDTO;
+import tally.example.demo.model.User;
+
+@SpringBootTest
+class UserServiceTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FriendGraphService friendGraphService;
+
+    @Autowired
+    private QueryCountInspector queryCount;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void getFriendsReadsTheFriendsInOneStatement() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        User carol = newUser(userService, "carol");
+        userService.addFriend(alice.getId(), bob.getId());
+        userService.addFriend(alice.getId(), carol.getId());
+        // The edges themselves are held in memory once loaded; count only the user read
+        friendGraphService.friendIds(alice.getId());
+
+        queryCount.start();
+        List<UserDTO> friends = userService.getFriends(alice.getId());
+        int statements = queryCount.stop();
+
+        assertThat(statements).isEqualTo(1);
+        assertThat(friends).extracting(UserDTO::getId).containsExactly(bob.getId(), carol.getId());
+    }
+
+    @Test
+    void addingAndRemovingAFriendEvictsBothFriendLists() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        Cache friends = cacheManager.getCache(CacheConfig.FRIENDS);
+        userService.getFriends(alice.getId());
+        userService.getFriends(bob.getId());
+
+        userService.addFriend(alice.getId(), bob.getId());
+
+        assertThat(friends.get(alice.getId())).isNull();
+        assertThat(friends.get(bob.getId())).isNull();
+        assertThat(userService.getFriends(alice.getId())).extracting(UserDTO::getId).containsExactly(bob.getId());
+        userService.getFriends(bob.getId());
+
+        userService.removeFriend(alice.getId(), bob.getId());
+
+        assertThat(friends.get(alice.getId())).isNull();
+        assertThat(friends.get(bob.getId())).isNull();
+        assertThat(userService.getFriends(alice.getId())).isEmpty();
+    }
+
+    @Test
+    void deactivatingAUserEvictsTheFriendListsShowingThem() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        userService.addFriend(alice.getId(), bob.getId());
+        assertThat(userService.getFriends(alice.getId())).extracting(UserDTO::getId).containsExactly(bob.getId());
+
+        userService.deactivateAccount(bob.getId());
+        assertThat(userService.getFriends(alice.getId())).isEmpty();
+
+        userService.reactivateAccount(bob.getId());
+        assertThat(userService.getFriends(alice.getId())).extracting(UserDTO::getId).containsExactly(bob.getId());
+    }
+}
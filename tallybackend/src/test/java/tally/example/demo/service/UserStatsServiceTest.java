@@ -0,0 +1,195 @@
+package tally.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tally.example.demo.service.TestBills.item;
+import static tally.example.demo.service.TestBills.request;
+import static tally.example.demo.service.TestBills.split;
+import static tally.example.demo.service.TestUsers.newUser;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tally.example.demo.dto.UserStatsDTO;
+import tally.example.demo.dto.request.CreateBillRequest;
+import tally.example.demo.model.Bill;
+import tally.example.demo.model.BillItem;
+import tally.example.demo.model.BillParticipant;
+import tally.example.demo.model.User;
+import tally.example.demo.repository.UpsertRepository;
+import tally.example.demo.repository.UserMonthlyItemStatsRepository;
+import tally.example.demo.repository.UserMonthlyStatsRepository;
+
+@SpringBootTest
+class UserStatsServiceTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BillService billService;
+
+    @Autowired
+    private UserStatsService statsService;
+
+    @Autowired
+    private UserMonthlyStatsRepository monthlyRepository;
+
+    @Autowired
+    private UserMonthlyItemStatsRepository itemRepository;
+
+    @Autowired
+    private UpsertRepository upsertRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentFirstBillsOfAMonthAllCount() throws Exception {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        // Applied straight to the rollups: through createBill the ledger's row locks would line the writers up
+        Bill bill = bill(alice, bob);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Callable<Object> apply = () -> {
+                    start.await();
+                    transaction.executeWithoutResult(status -> statsService.applyBill(bill, 1));
+                    return null;
+                };
+                writes.add(pool.submit(apply));
+            }
+            start.countDown();
+            for (Future<?> write : writes) {
+                // Rethrows a duplicate-key failure from any racing first write of a month or item row
+                write.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        UserStatsDTO forAlice = thisMonth(alice);
+        assertThat(forAlice.getBillCount()).isEqualTo(THREADS);
+        assertThat(forAlice.getSpent()).isEqualByComparingTo(new BigDecimal(2 * THREADS));
+        assertThat(forAlice.getOwed()).isEqualByComparingTo(new BigDecimal(THREADS));
+        assertThat(forAlice.getTopItems()).singleElement().satisfies(top -> {
+            assertThat(top.getName()).isEqualTo("COFFEE");
+            assertThat(top.getAmount()).isEqualByComparingTo(new BigDecimal(2 * THREADS));
+        });
+
+        UserStatsDTO forBob = thisMonth(bob);
+        assertThat(forBob.getBillCount()).isEqualTo(THREADS);
+        assertThat(forBob.getSpent()).isEqualByComparingTo(new BigDecimal(THREADS));
+    }
+
+    @Test
+    void deletingABillTakesItBackOutOfItsMonth() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        CreateBillRequest request = request("Groceries", split(alice, "6.00"), split(bob, "4.00"));
+        request.setItems(List.of(item("BREAD", "10.00")));
+        Long billId = billService.createBill(request, alice.getId()).getId();
+
+        billService.deleteBill(billId, alice.getId());
+
+        UserStatsDTO forAlice = thisMonth(alice);
+        assertThat(forAlice.getBillCount()).isZero();
+        assertThat(forAlice.getSpent()).isEqualByComparingTo("0");
+        assertThat(forAlice.getOwed()).isEqualByComparingTo("0");
+        assertThat(forAlice.getTopItems()).isEmpty();
+    }
+
+    @Test
+    void mergingACreatorMovesWhatIsOwedButNotWhatWasPaid() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        User carol = newUser(userService, "carol");
+        Long billId = billService.createBill(request("Dinner", split(alice, "7.00"), split(bob, "5.00")), alice.getId())
+            .getId();
+        billService.markParticipantAsPaid(billId, bob.getId());
+
+        billService.updateCreatorId(alice.getId(), carol.getId());
+
+        UserStatsDTO forAlice = thisMonth(alice);
+        assertThat(forAlice.getOwed()).isEqualByComparingTo("0");
+        assertThat(forAlice.getReceived()).isEqualByComparingTo("5.00");
+        assertThat(forAlice.getBillCount()).isEqualTo(1);
+        UserStatsDTO forCarol = thisMonth(carol);
+        assertThat(forCarol.getOwed()).isEqualByComparingTo("12.00");
+        assertThat(forCarol.getReceived()).isEqualByComparingTo("0");
+        assertThat(forCarol.getBillCount()).isEqualTo(1);
+        assertThat(thisMonth(bob).getPaid()).isEqualByComparingTo("5.00");
+    }
+
+    @Test
+    void aPaymentCountsInTheMonthItIsMade() {
+        User alice = newUser(userService, "alice");
+        User bob = newUser(userService, "bob");
+        Bill bill = bill(alice, bob);
+        bill.setCreatedAt(LocalDateTime.of(2024, 1, 20, 18, 0));
+        BillParticipant bobsShare = bill.getParticipants().stream()
+            .filter(participant -> participant.getUser() == bob)
+            .findFirst().orElseThrow();
+        Clock march = Clock.fixed(Instant.parse("2024-03-02T10:00:00Z"), ZoneOffset.UTC);
+        UserStatsService inMarch = new UserStatsService(monthlyRepository, itemRepository, upsertRepository, march);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> inMarch.applyBill(bill, 1));
+        transaction.executeWithoutResult(status -> inMarch.recordPayment(bill, bobsShare));
+
+        UserStatsDTO forBob = statsService.getStats(bob.getId(), YearMonth.of(2024, 1), YearMonth.of(2024, 3));
+        assertThat(forBob.getMonths()).extracting(UserStatsDTO.MonthStats::getSpent)
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactly(new BigDecimal("1.00"), BigDecimal.ZERO, BigDecimal.ZERO);
+        assertThat(forBob.getMonths()).extracting(UserStatsDTO.MonthStats::getPaid)
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactly(BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("1.00"));
+        assertThat(statsService.getStats(alice.getId(), YearMonth.of(2024, 3), YearMonth.of(2024, 3)).getReceived())
+            .isEqualByComparingTo("1.00");
+    }
+
+    // A 3.00 coffee Alice paid for, of which Bob owes her 1.00
+    private static Bill bill(User alice, User bob) {
+        Bill bill = new Bill();
+        bill.setName("Coffee");
+        bill.setCreatorId(alice.getId());
+        bill.setCreatedAt(LocalDateTime.now());
+        for (User user : List.of(alice, bob)) {
+            BillParticipant participant = new BillParticipant();
+            participant.setUser(user);
+            participant.setAmount(new BigDecimal(user == alice ? "2.00" : "1.00"));
+            bill.getParticipants().add(participant);
+        }
+        BillItem item = new BillItem();
+        item.setName("COFFEE");
+        item.setPrice(new BigDecimal("3.00"));
+        bill.getItems().add(item);
+        return bill;
+    }
+
+    private UserStatsDTO thisMonth(User user) {
+        return statsService.getStats(user.getId(), YearMonth.now(), YearMonth.now());
+    }
+}